@@ -2,6 +2,7 @@ package com.example.ml;
 
 import com.example.ml.data.DataLoader;
 import com.example.ml.data.Dataset;
+import com.example.ml.data.IndexSplit;
 import com.example.ml.data.Instance;
 import com.example.ml.model.DecisionTree;
 import com.example.ml.model.LogisticRegression;
@@ -23,17 +24,20 @@ public class Main {
 
         List<Instance<Double, Integer>> data = loader.loadFromCsv("/Users/mihaibogdandeaconu/Documents/Facultate/MAP/ML/src/main/resources/com/example/ml/diabetes.csv");
 
-        Dataset<Double, Integer> dataset = new Dataset<>(data, 8, Double::parseDouble);
+        Dataset<Double, Integer> dataset = new Dataset<>(data, 8);
         dataset.shuffle();
 
 //        dataset.convertLabelsToMinusOne();
 
-        SplitResult<Double, Integer> splitResultNotS = dataset.trainTestSplit(0.7, false);
+        // One set of row indices, viewed raw and standardized; neither view modifies the data
+        IndexSplit indices = dataset.indexSplit(0.7, 0.15);
+
+        SplitResult<Double, Integer> splitResultNotS = dataset.split(indices, false);
         List<Instance<Double, Integer>> trainSetNotS = splitResultNotS.getTrainSet();
         List<Instance<Double, Integer>> validationSetNotS = splitResultNotS.getValidationSet();
         List<Instance<Double, Integer>> testSetNotS = splitResultNotS.getTestSet();
 
-        SplitResult<Double, Integer> splitResult = dataset.trainTestSplit(0.7, true);
+        SplitResult<Double, Integer> splitResult = dataset.split(indices, true);
         List<Instance<Double, Integer>> trainSet = splitResult.getTrainSet();
         List<Instance<Double, Integer>> validationSet = splitResult.getValidationSet();
         List<Instance<Double, Integer>> testSet = splitResult.getTestSet();
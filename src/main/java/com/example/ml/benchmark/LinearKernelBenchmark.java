@@ -0,0 +1,67 @@
+package com.example.ml.benchmark;
+
+import com.example.ml.utils.Kernels;
+
+import java.util.Random;
+
+// Compares the scalar kernels with Kernels.DEFAULT on dot, axpy and a 256-row gemv at 8, 128 and
+// 4096 features. Run with:
+//   java --add-modules jdk.incubator.vector com.example.ml.benchmark.LinearKernelBenchmark
+// Without the module DEFAULT is the scalar implementation and both columns match.
+public class LinearKernelBenchmark {
+    private static final int[] FEATURES = {8, 128, 4096};
+    private static final int ROWS = 256;
+    private static final long WORK = 200_000_000L; // multiply-adds per measurement
+    private static final int WARMUP = 3;
+
+    public static void main(String[] args) {
+        System.out.println("Kernels.DEFAULT: " + Kernels.DEFAULT.name());
+        Random random = new Random(7);
+        for (int n : FEATURES) {
+            double[] matrix = new double[ROWS * n];
+            double[] x = new double[n];
+            double[] y = new double[n];
+            double[] out = new double[ROWS];
+            for (int i = 0; i < matrix.length; i++) {
+                matrix[i] = random.nextDouble() - 0.5;
+            }
+            for (int i = 0; i < n; i++) {
+                x[i] = random.nextDouble() - 0.5;
+            }
+            for (String kernel : new String[]{"dot", "axpy", "gemv"}) {
+                double scalar = 0.0;
+                double vector = 0.0;
+                for (int i = 0; i <= WARMUP; i++) {
+                    scalar = run(Kernels.SCALAR, kernel, matrix, x, y, out, n);
+                    vector = run(Kernels.DEFAULT, kernel, matrix, x, y, out, n);
+                }
+                System.out.printf("%5d features  %-4s  scalar %6.3f ns/op  default %6.3f ns/op  (%.2fx)%n",
+                        n, kernel, scalar, vector, scalar / vector);
+            }
+        }
+    }
+
+    // Returns nanoseconds per multiply-add.
+    private static double run(Kernels kernels, String kernel, double[] matrix, double[] x, double[] y,
+                              double[] out, int n) {
+        long calls = Math.max(1, WORK / (kernel.equals("gemv") ? (long) ROWS * n : n));
+        double sink = 0.0;
+        long start = System.nanoTime();
+        for (long c = 0; c < calls; c++) {
+            int row = (int) (c % ROWS) * n;
+            switch (kernel) {
+                case "dot" -> sink += kernels.dot(matrix, row, x, n);
+                case "axpy" -> kernels.axpy(1e-9, matrix, row, y, n);
+                default -> {
+                    kernels.gemv(matrix, 0, ROWS, n, x, out);
+                    sink += out[(int) (c % ROWS)];
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42.0 && y[0] == 42.0) {
+            System.out.println();
+        }
+        return (double) elapsed / (calls * (kernel.equals("gemv") ? (long) ROWS * n : n));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ml.benchmark;
+
+import com.example.ml.data.ColumnarMatrix;
+import com.example.ml.data.Dataset;
+import com.example.ml.model.DecisionTree;
+import com.example.ml.model.GradientBoostedTrees;
+import com.example.ml.model.QuickScorer;
+import com.example.ml.model.RowScorer;
+import com.example.ml.model.TreeCompiler;
+import com.example.ml.utils.SplitResult;
+
+import java.util.List;
+import java.util.Random;
+
+// Compares interpreted (flat array) scoring of a single tree and of a boosted ensemble with
+// generated bytecode and, for the ensemble, with QuickScorer on synthetic data. Run with: java com.example.ml.benchmark.TreeInferenceBenchmark
+public class TreeInferenceBenchmark {
+    private static final int ROWS = 200_000;
+    private static final int FEATURES = 16;
+    private static final int WARMUP = 5;
+    private static final int ITERATIONS = 10;
+
+    public static void main(String[] args) {
+        ColumnarMatrix matrix = syntheticData(ROWS, FEATURES, new Random(7));
+        double[][] rows = new double[ROWS][FEATURES];
+        for (int r = 0; r < ROWS; r++) {
+            matrix.copyRow(r, rows[r]);
+        }
+        Dataset<Double, Integer> dataset = new Dataset<>(matrix);
+        SplitResult<Double, Integer> split = dataset.split(dataset.indexSplit(0.7, 0.15), false);
+
+        for (int depth : new int[]{7, 12}) {
+            DecisionTree<Double, Integer> tree = new DecisionTree<>(depth, 2, DecisionTree.SplitMode.HISTOGRAM);
+            tree.train(split.getTrainSet(), split.getValidationSet());
+            RowScorer interpreted = row -> tree.getTree().predict(row);
+            RowScorer generated = TreeCompiler.compile(tree.getTree());
+            report("tree depth " + depth + " (" + tree.getTree().size() + " nodes)", rows, interpreted, generated,
+                    label(generated));
+        }
+
+        GradientBoostedTrees<Double, Integer> boosted = new GradientBoostedTrees<>(200, 0.1, 7, 20, 1.0,
+                0.8, 1.0, 200, 255, Runtime.getRuntime().availableProcessors(), 42L);
+        boosted.train(split.getTrainSet(), List.of());
+        RowScorer interpreted = row -> boosted.getEnsemble().score(row);
+        RowScorer generated = TreeCompiler.compile(boosted.getEnsemble());
+        String name = "ensemble of " + boosted.getEnsemble().numTrees() + " depth-7 trees";
+        report(name, rows, interpreted, generated, label(generated));
+        QuickScorer quickScorer = QuickScorer.of(boosted.getEnsemble());
+        report(name, rows, interpreted, quickScorer::score, "bit-vector");
+    }
+
+    private static String label(RowScorer scorer) {
+        return TreeCompiler.isGenerated(scorer) ? "bytecode" : "fallback";
+    }
+
+    private static void report(String name, double[][] rows, RowScorer interpreted, RowScorer generated, String kind) {
+        for (int i = 0; i < WARMUP; i++) {
+            run(rows, interpreted);
+            run(rows, generated);
+        }
+        long interpretedNanos = 0;
+        long generatedNanos = 0;
+        double checksum = 0.0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            checksum += run(rows, interpreted);
+            interpretedNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            checksum -= run(rows, generated);
+            generatedNanos += System.nanoTime() - start;
+        }
+        double interpretedPerRow = (double) interpretedNanos / ITERATIONS / rows.length;
+        double generatedPerRow = (double) generatedNanos / ITERATIONS / rows.length;
+        System.out.printf("%-36s interpreted %7.2f ns/row  %-10s %7.2f ns/row  (%.2fx, checksum %.1f)%n",
+                name, interpretedPerRow, kind, generatedPerRow, interpretedPerRow / generatedPerRow, checksum);
+    }
+
+    private static double run(double[][] rows, RowScorer scorer) {
+        double sum = 0.0;
+        for (double[] row : rows) {
+            sum += scorer.score(row);
+        }
+        return sum;
+    }
+
+    // Label depends on an interaction and a threshold, with 10% noise, so trees grow to full depth.
+    static ColumnarMatrix syntheticData(int numRows, int numFeatures, Random random) {
+        ColumnarMatrix matrix = new ColumnarMatrix(numRows, numFeatures);
+        for (int r = 0; r < numRows; r++) {
+            for (int f = 0; f < numFeatures; f++) {
+                matrix.set(r, f, random.nextDouble() * 2 - 1);
+            }
+            boolean positive = matrix.get(r, 0) * matrix.get(r, 1) > 0 ^ matrix.get(r, 2) > 0.5;
+            matrix.setLabel(r, positive ^ random.nextDouble() < 0.1 ? 1 : 0);
+        }
+        return matrix;
+    }
+}
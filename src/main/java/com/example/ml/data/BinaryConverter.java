@@ -0,0 +1,100 @@
+package com.example.ml.data;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// One-time conversion of a CSV file (header line, numeric features, integer label last)
+// into the binary columnar format read by MappedMatrix.
+public class BinaryConverter {
+    private static final int BLOCK_ROWS = 1 << 16;
+
+    public static BinaryHeader convertCsv(String csvPath, String binaryPath) throws IOException {
+        String[] names;
+        long numRows = 0;
+        try (BufferedReader br = new BufferedReader(new FileReader(csvPath))) {
+            String headerLine = br.readLine();
+            if (headerLine == null) {
+                throw new IOException("Empty CSV file: " + csvPath);
+            }
+            names = headerLine.split(",");
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    numRows++;
+                }
+            }
+        }
+
+        int numFeatures = names.length - 1;
+        FeatureStats stats = new FeatureStats(numFeatures);
+        double[] row = new double[numFeatures];
+        BinaryHeader header = new BinaryHeader(numRows, names[numFeatures], Arrays.copyOf(names, numFeatures),
+                stats.min, stats.max, stats.mean, new double[numFeatures]);
+
+        ByteBuffer[] columnBlocks = new ByteBuffer[numFeatures];
+        for (int j = 0; j < numFeatures; j++) {
+            columnBlocks[j] = ByteBuffer.allocateDirect(BLOCK_ROWS * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer labelBlock = ByteBuffer.allocateDirect(BLOCK_ROWS * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        try (BufferedReader br = new BufferedReader(new FileReader(csvPath));
+             FileChannel channel = FileChannel.open(Path.of(binaryPath), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            br.readLine();
+            long rowIndex = 0;
+            long blockStart = 0;
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] values = line.split(",");
+                if (values.length != names.length) {
+                    throw new IOException("Line " + (rowIndex + 2) + " has " + values.length
+                            + " columns, expected " + names.length);
+                }
+                for (int j = 0; j < numFeatures; j++) {
+                    row[j] = Double.parseDouble(values[j]);
+                    columnBlocks[j].putDouble(row[j]);
+                }
+                stats.add(row);
+                labelBlock.putInt(Integer.parseInt(values[numFeatures].trim()));
+                rowIndex++;
+                if (rowIndex - blockStart == BLOCK_ROWS) {
+                    flushBlocks(channel, header, columnBlocks, labelBlock, blockStart);
+                    blockStart = rowIndex;
+                }
+            }
+            flushBlocks(channel, header, columnBlocks, labelBlock, blockStart);
+
+            for (int j = 0; j < numFeatures; j++) {
+                header.stdDev[j] = Math.sqrt(stats.getVariance(j));
+            }
+            header.write(channel);
+        }
+        return header;
+    }
+
+    private static void flushBlocks(FileChannel channel, BinaryHeader header, ByteBuffer[] columnBlocks,
+                                    ByteBuffer labelBlock, long blockStart) throws IOException {
+        for (int j = 0; j < columnBlocks.length; j++) {
+            writeFully(channel, columnBlocks[j], header.columnOffset(j) + blockStart * Double.BYTES);
+        }
+        writeFully(channel, labelBlock, header.labelOffset() + blockStart * Integer.BYTES);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer block, long position) throws IOException {
+        block.flip();
+        while (block.hasRemaining()) {
+            channel.write(block, position + block.position());
+        }
+        block.clear();
+    }
+}
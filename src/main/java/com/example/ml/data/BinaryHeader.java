@@ -0,0 +1,181 @@
+package com.example.ml.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+// Header of the binary columnar dataset format. Everything is little-endian:
+//
+//   int    magic ("MLBD")
+//   int    version
+//   long   row count
+//   int    feature count
+//   long   data offset (8-byte aligned)
+//   names  label name, then one per feature (int length + UTF-8 bytes)
+//   stats  min, max, mean, std dev per feature (doubles)
+//
+// followed at the data offset by one block of row-count doubles per feature
+// and then one block of row-count int labels.
+public class BinaryHeader {
+    static final int MAGIC = 0x44424C4D;
+    static final int VERSION = 1;
+
+    final long numRows;
+    final String labelName;
+    final String[] featureNames;
+    final double[] min;
+    final double[] max;
+    final double[] mean;
+    final double[] stdDev;
+
+    BinaryHeader(long numRows, String labelName, String[] featureNames,
+                 double[] min, double[] max, double[] mean, double[] stdDev) {
+        this.numRows = numRows;
+        this.labelName = labelName;
+        this.featureNames = featureNames;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.stdDev = stdDev;
+    }
+
+    public long getNumRows() {
+        return numRows;
+    }
+
+    public int getNumFeatures() {
+        return featureNames.length;
+    }
+
+    public String getLabelName() {
+        return labelName;
+    }
+
+    public String[] getFeatureNames() {
+        return featureNames.clone();
+    }
+
+    public double getMin(int feature) {
+        return min[feature];
+    }
+
+    public double getMax(int feature) {
+        return max[feature];
+    }
+
+    public double getMean(int feature) {
+        return mean[feature];
+    }
+
+    public double getStdDev(int feature) {
+        return stdDev[feature];
+    }
+
+    long dataOffset() {
+        return align(fixedSize(labelName, featureNames) + 32L * featureNames.length);
+    }
+
+    long columnOffset(int feature) {
+        return dataOffset() + (long) feature * numRows * Double.BYTES;
+    }
+
+    long labelOffset() {
+        return columnOffset(featureNames.length);
+    }
+
+    long fileSize() {
+        return labelOffset() + numRows * Integer.BYTES;
+    }
+
+    void write(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) dataOffset()).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(numRows);
+        buffer.putInt(featureNames.length);
+        buffer.putLong(dataOffset());
+        putString(buffer, labelName);
+        for (String name : featureNames) {
+            putString(buffer, name);
+        }
+        for (int j = 0; j < featureNames.length; j++) {
+            buffer.putDouble(min[j]);
+            buffer.putDouble(max[j]);
+            buffer.putDouble(mean[j]);
+            buffer.putDouble(stdDev[j]);
+        }
+        buffer.rewind();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    static BinaryHeader read(FileChannel channel) throws IOException {
+        ByteBuffer fixed = readFully(channel, 0, 28);
+        if (fixed.getInt() != MAGIC) {
+            throw new IOException("Not a binary dataset file");
+        }
+        int version = fixed.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary dataset version " + version);
+        }
+        long numRows = fixed.getLong();
+        int numFeatures = fixed.getInt();
+        long dataOffset = fixed.getLong();
+
+        ByteBuffer buffer = readFully(channel, 28, (int) (dataOffset - 28));
+        String labelName = getString(buffer);
+        String[] featureNames = new String[numFeatures];
+        for (int j = 0; j < numFeatures; j++) {
+            featureNames[j] = getString(buffer);
+        }
+        double[] min = new double[numFeatures];
+        double[] max = new double[numFeatures];
+        double[] mean = new double[numFeatures];
+        double[] stdDev = new double[numFeatures];
+        for (int j = 0; j < numFeatures; j++) {
+            min[j] = buffer.getDouble();
+            max[j] = buffer.getDouble();
+            mean[j] = buffer.getDouble();
+            stdDev[j] = buffer.getDouble();
+        }
+        return new BinaryHeader(numRows, labelName, featureNames, min, max, mean, stdDev);
+    }
+
+    private static long fixedSize(String labelName, String[] featureNames) {
+        long size = 28 + 4 + labelName.getBytes(StandardCharsets.UTF_8).length;
+        for (String name : featureNames) {
+            size += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated binary dataset header");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ml.data;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Features quantized once into at most 255 quantile bins, stored as one byte per cell and column.
+// Bin b of feature f holds the values v with edges[f][b - 1] < v <= edges[f][b], so a split
+// "bin <= b" is the real-valued split "value <= getThreshold(f, b)" and can be used as-is
+// on raw rows at prediction time.
+public class BinnedMatrix {
+    public static final int MAX_BINS = 255;
+
+    private final byte[][] codes;
+    private final double[][] edges;
+    private final int[] labels;
+
+    private BinnedMatrix(byte[][] codes, double[][] edges, int[] labels) {
+        this.codes = codes;
+        this.edges = edges;
+        this.labels = labels;
+    }
+
+    public static BinnedMatrix quantize(FeatureMatrix matrix) {
+        return quantize(matrix, MAX_BINS);
+    }
+
+    public static BinnedMatrix quantize(FeatureMatrix matrix, int maxBins) {
+        if (maxBins < 2 || maxBins > MAX_BINS) {
+            throw new IllegalArgumentException("maxBins must be between 2 and " + MAX_BINS + ", got " + maxBins);
+        }
+        int numRows = matrix.numRows();
+        byte[][] codes = new byte[matrix.numFeatures()][numRows];
+        double[][] edges = new double[matrix.numFeatures()][];
+        IntStream.range(0, matrix.numFeatures()).parallel().forEach(j -> {
+            double[] values = new double[numRows];
+            for (int i = 0; i < numRows; i++) {
+                values[i] = matrix.get(i, j);
+            }
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+            edges[j] = quantileEdges(sorted, maxBins);
+            for (int i = 0; i < numRows; i++) {
+                codes[j][i] = (byte) binOf(edges[j], values[i]);
+            }
+        });
+        int[] labels = new int[numRows];
+        for (int i = 0; i < numRows; i++) {
+            labels[i] = matrix.getLabel(i);
+        }
+        return new BinnedMatrix(codes, edges, labels);
+    }
+
+    // With few distinct values every value gets its own bin; otherwise cut points sit at evenly
+    // spaced ranks. Each edge lies halfway to the next distinct value, like an exact-split
+    // threshold, and the last edge is +infinity so every value has a bin.
+    private static double[] quantileEdges(double[] sorted, int maxBins) {
+        int n = sorted.length;
+        double[] candidates = new double[maxBins];
+        int count = 0;
+        int distinct = 0;
+        for (int i = 0; i < n && distinct <= maxBins; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                distinct++;
+            }
+        }
+        if (distinct <= maxBins) {
+            for (int i = 0; i + 1 < n; i++) {
+                if (sorted[i] != sorted[i + 1]) {
+                    candidates[count++] = (sorted[i] + sorted[i + 1]) / 2.0;
+                }
+            }
+        } else {
+            for (int b = 1; b < maxBins; b++) {
+                int rank = (int) ((long) b * n / maxBins) - 1;
+                int next = rank + 1;
+                while (next < n && sorted[next] == sorted[rank]) {
+                    next++;
+                }
+                if (next >= n) {
+                    break;
+                }
+                double edge = (sorted[rank] + sorted[next]) / 2.0;
+                if (count == 0 || edge > candidates[count - 1]) {
+                    candidates[count++] = edge;
+                }
+            }
+        }
+        double[] edges = Arrays.copyOf(candidates, count + 1);
+        edges[count] = Double.POSITIVE_INFINITY;
+        return edges;
+    }
+
+    private static int binOf(double[] featureEdges, double value) {
+        int low = 0;
+        int high = featureEdges.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (value <= featureEdges[mid]) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    public int numRows() {
+        return labels.length;
+    }
+
+    public int numFeatures() {
+        return codes.length;
+    }
+
+    public int numBins(int feature) {
+        return edges[feature].length;
+    }
+
+    public int getBin(int row, int feature) {
+        return codes[feature][row] & 0xFF;
+    }
+
+    // Bin codes of one feature; read them with & 0xFF.
+    public byte[] getColumn(int feature) {
+        return codes[feature];
+    }
+
+    public int getLabel(int row) {
+        return labels[row];
+    }
+
+    public int[] getLabels() {
+        return labels;
+    }
+
+    // Real-valued threshold equivalent to "bin <= bin".
+    public double getThreshold(int feature, int bin) {
+        return edges[feature][bin];
+    }
+
+    public int binOf(int feature, double value) {
+        return binOf(edges[feature], value);
+    }
+
+    public long memoryBytes() {
+        long bytes = (long) labels.length * Integer.BYTES;
+        for (int j = 0; j < codes.length; j++) {
+            bytes += codes[j].length + (long) edges[j].length * Double.BYTES;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.ml.data;
+
+// Out-of-core training data. Each call to open() starts a new pass (one epoch)
+// and re-reads the underlying file or mapping, so only one block is ever resident.
+public interface BlockSource {
+    int numFeatures();
+
+    int blockSize();
+
+    BlockReader open();
+
+    interface BlockReader extends AutoCloseable {
+        // Refills the block with the next rows; returns false once the pass is exhausted.
+        boolean next(RowBlock block);
+
+        @Override
+        void close();
+    }
+}
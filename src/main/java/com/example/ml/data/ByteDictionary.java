@@ -0,0 +1,88 @@
+package com.example.ml.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Open-addressing map from raw byte strings to consecutive ids. Keys are copied into one
+// shared byte arena on first insertion, so lookups of known categories do not allocate.
+class ByteDictionary {
+    private byte[] arena = new byte[1024];
+    private int arenaSize = 0;
+    private int[] keyOffsets = new int[16];
+    private int[] keyLengths = new int[16];
+    private int[] slots = new int[32];
+    private int size = 0;
+
+    ByteDictionary() {
+        Arrays.fill(slots, -1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int getOrAdd(ByteBuffer bytes, int from, int to, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot];
+            if (id < 0) {
+                return add(bytes, from, to, slot);
+            }
+            if (matches(id, bytes, from, to)) {
+                return id;
+            }
+        }
+    }
+
+    String getKey(int id) {
+        return new String(arena, keyOffsets[id], keyLengths[id], StandardCharsets.UTF_8);
+    }
+
+    private boolean matches(int id, ByteBuffer bytes, int from, int to) {
+        if (keyLengths[id] != to - from) {
+            return false;
+        }
+        int offset = keyOffsets[id];
+        for (int i = from; i < to; i++) {
+            if (arena[offset++] != bytes.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int add(ByteBuffer bytes, int from, int to, int slot) {
+        int length = to - from;
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+        }
+        bytes.get(from, arena, arenaSize, length);
+        if (size == keyOffsets.length) {
+            keyOffsets = Arrays.copyOf(keyOffsets, size * 2);
+            keyLengths = Arrays.copyOf(keyLengths, size * 2);
+        }
+        keyOffsets[size] = arenaSize;
+        keyLengths[size] = length;
+        arenaSize += length;
+        slots[slot] = size;
+        if (++size * 2 > slots.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int hash = Murmur3.hash(arena, keyOffsets[id], keyLengths[id], 0);
+            int slot = hash & mask;
+            while (slots[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.ml.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class ByteNumberParser {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private ByteNumberParser() {
+    }
+
+    // Allocation-free decimal parser. Plain decimals with at most 15 significant digits and
+    // a small exponent are exactly representable, so one multiply or divide by an exact power
+    // of ten gives the correctly rounded result. Anything else falls back to Double.parseDouble.
+    static double parseDouble(ByteBuffer bytes, int from, int to) {
+        while (from < to && bytes.get(from) == ' ') {
+            from++;
+        }
+        while (to > from && bytes.get(to - 1) == ' ') {
+            to--;
+        }
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+            negative = bytes.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        while (i < to && isDigit(bytes.get(i))) {
+            mantissa = mantissa * 10 + (bytes.get(i) - '0');
+            if (mantissa != 0) {
+                significantDigits++;
+            }
+            anyDigits = true;
+            i++;
+        }
+        if (i < to && bytes.get(i) == '.') {
+            i++;
+            while (i < to && isDigit(bytes.get(i))) {
+                mantissa = mantissa * 10 + (bytes.get(i) - '0');
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+                exponent--;
+                anyDigits = true;
+                i++;
+            }
+        }
+        if (anyDigits && i < to && (bytes.get(i) == 'e' || bytes.get(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes.get(i) == '-' || bytes.get(i) == '+')) {
+                negativeExponent = bytes.get(i) == '-';
+                i++;
+            }
+            int explicitExponent = 0;
+            int exponentStart = i;
+            while (i < to && isDigit(bytes.get(i)) && explicitExponent < 10000) {
+                explicitExponent = explicitExponent * 10 + (bytes.get(i) - '0');
+                i++;
+            }
+            if (i == exponentStart) {
+                return slowParse(bytes, from, to);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (!anyDigits || i != to || significantDigits > 15) {
+            return slowParse(bytes, from, to);
+        }
+        double value = mantissa;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+            value *= POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+            value /= POWERS_OF_TEN[-exponent];
+        } else {
+            return slowParse(bytes, from, to);
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static double slowParse(ByteBuffer bytes, int from, int to) {
+        byte[] text = new byte[to - from];
+        bytes.get(from, text);
+        return Double.parseDouble(new String(text, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ml.data;
+
+import java.util.List;
+
+// Column-major heap storage: one double[] per feature plus an int[] of labels.
+public class ColumnarMatrix implements FeatureMatrix {
+    final double[][] columns;
+    final int[] labels;
+
+    public ColumnarMatrix(int numRows, int numFeatures) {
+        this.columns = new double[numFeatures][numRows];
+        this.labels = new int[numRows];
+    }
+
+    public ColumnarMatrix(double[][] columns, int[] labels) {
+        for (double[] column : columns) {
+            if (column.length != labels.length) {
+                throw new IllegalArgumentException("Column length " + column.length
+                        + " does not match label count " + labels.length);
+            }
+        }
+        this.columns = columns;
+        this.labels = labels;
+    }
+
+    public static <F extends Number, L extends Number> ColumnarMatrix fromInstances(List<Instance<F, L>> instances, int numFeatures) {
+        ColumnarMatrix matrix = new ColumnarMatrix(instances.size(), numFeatures);
+        for (int i = 0; i < instances.size(); i++) {
+            Instance<F, L> instance = instances.get(i);
+            for (int j = 0; j < numFeatures; j++) {
+                matrix.columns[j][i] = instance.getFeatureValue(j);
+            }
+            matrix.labels[i] = instance.getLabel().intValue();
+        }
+        return matrix;
+    }
+
+    @Override
+    public int numRows() {
+        return labels.length;
+    }
+
+    @Override
+    public int numFeatures() {
+        return columns.length;
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        return columns[feature][row];
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return labels[row];
+    }
+
+    @Override
+    public void set(int row, int feature, double value) {
+        columns[feature][row] = value;
+    }
+
+    @Override
+    public void setLabel(int row, int label) {
+        labels[row] = label;
+    }
+
+    // Direct access to the backing arrays; writes are visible to every view.
+    public double[] getColumn(int feature) {
+        return columns[feature];
+    }
+
+    public int[] getLabels() {
+        return labels;
+    }
+
+    public static ColumnarMatrix copyOf(FeatureMatrix source) {
+        ColumnarMatrix matrix = new ColumnarMatrix(source.numRows(), source.numFeatures());
+        for (int j = 0; j < source.numFeatures(); j++) {
+            double[] column = matrix.columns[j];
+            for (int i = 0; i < column.length; i++) {
+                column[i] = source.get(i, j);
+            }
+        }
+        for (int i = 0; i < matrix.labels.length; i++) {
+            matrix.labels[i] = source.getLabel(i);
+        }
+        return matrix;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ml.data;
+
+// Streams a CSV file (header line, feature columns, integer label last) in blocks,
+// re-reading it from disk on every pass through a fixed-size byte window. Without an
+// encoder every feature column is numeric; with one, rows are encoded on the fly.
+public class CsvBlockSource implements BlockSource {
+    private final String filePath;
+    private final int blockSize;
+    private final int numColumns;
+    private final FeatureEncoder encoder;
+
+    public CsvBlockSource(String filePath, int blockSize) {
+        this(filePath, blockSize, null);
+    }
+
+    public CsvBlockSource(String filePath, int blockSize, FeatureEncoder encoder) {
+        this.filePath = filePath;
+        this.blockSize = blockSize;
+        this.encoder = encoder;
+        try (CsvLineReader lines = new CsvLineReader(filePath)) {
+            this.numColumns = lines.header().length;
+        }
+        if (encoder != null) {
+            encoder.checkColumns(numColumns);
+        }
+    }
+
+    @Override
+    public int numFeatures() {
+        return encoder != null ? encoder.numFeatures() : numColumns - 1;
+    }
+
+    @Override
+    public int blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public BlockReader open() {
+        CsvLineReader lines = new CsvLineReader(filePath);
+        double[] encoded = encoder != null ? new double[encoder.numFeatures()] : null;
+        return new BlockReader() {
+            @Override
+            public boolean next(RowBlock block) {
+                block.clear();
+                while (!block.isFull() && lines.nextLine()) {
+                    lines.requireFields(numColumns);
+                    int label = (int) lines.parseField(numColumns - 1);
+                    if (encoder != null) {
+                        encoder.encodeDense(lines, encoded);
+                        block.addRow(encoded, label);
+                    } else {
+                        int row = block.addRow(label);
+                        for (int j = 0; j < numColumns - 1; j++) {
+                            block.set(row, j, lines.parseField(j));
+                        }
+                    }
+                }
+                return block.numRows() > 0;
+            }
+
+            @Override
+            public void close() {
+                lines.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.ml.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads a CSV file line by line through a reusable byte window and records the field
+// boundaries of the current line. Fields are never decoded into Strings.
+class CsvLineReader implements AutoCloseable {
+    private static final int WINDOW_BYTES = 1 << 20;
+
+    private final String filePath;
+    private final FileChannel channel;
+    private final String[] header;
+    private ByteBuffer window = ByteBuffer.allocate(WINDOW_BYTES);
+    private boolean endOfFile = false;
+    private long lineNumber = 0;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount = 0;
+
+    CsvLineReader(String filePath) {
+        this.filePath = filePath;
+        try {
+            this.channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        window.flip();
+        if (!nextLine()) {
+            close();
+            throw new IllegalArgumentException("Empty CSV file: " + filePath);
+        }
+        this.header = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            byte[] name = new byte[fieldEnds[i] - fieldStarts[i]];
+            window.get(fieldStarts[i], name);
+            header[i] = new String(name, StandardCharsets.UTF_8).strip();
+        }
+    }
+
+    String[] header() {
+        return header;
+    }
+
+    // Advances to the next non-blank line; returns false at end of file.
+    boolean nextLine() {
+        while (true) {
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0) {
+                fieldCount = 0;
+                return false;
+            }
+            int lineStart = window.position();
+            int contentEnd = lineEnd > lineStart && window.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            window.position(Math.min(lineEnd + 1, window.limit()));
+            lineNumber++;
+            if (contentEnd > lineStart) {
+                splitFields(lineStart, contentEnd);
+                return true;
+            }
+        }
+    }
+
+    ByteBuffer bytes() {
+        return window;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    int fieldStart(int field) {
+        return fieldStarts[field];
+    }
+
+    int fieldEnd(int field) {
+        return fieldEnds[field];
+    }
+
+    double parseField(int field) {
+        return ByteNumberParser.parseDouble(window, fieldStarts[field], fieldEnds[field]);
+    }
+
+    void requireFields(int expected) {
+        if (fieldCount != expected) {
+            throw new IllegalArgumentException("Malformed CSV line " + lineNumber + " in " + filePath
+                    + ": expected " + expected + " columns, found " + fieldCount);
+        }
+    }
+
+    private void splitFields(int lineStart, int contentEnd) {
+        fieldCount = 0;
+        int fieldStart = lineStart;
+        for (int i = lineStart; i <= contentEnd; i++) {
+            if (i == contentEnd || window.get(i) == ',') {
+                if (fieldCount == fieldStarts.length) {
+                    fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                    fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                }
+                fieldStarts[fieldCount] = fieldStart;
+                fieldEnds[fieldCount++] = i;
+                fieldStart = i + 1;
+            }
+        }
+    }
+
+    // Index of the '\n' ending the line at the window position, refilling or growing the
+    // window as needed. At end of file a trailing line without '\n' ends at the limit.
+    private int findLineEnd() {
+        int scanFrom = window.position();
+        while (true) {
+            for (int i = scanFrom; i < window.limit(); i++) {
+                if (window.get(i) == '\n') {
+                    return i;
+                }
+            }
+            if (endOfFile) {
+                return window.hasRemaining() ? window.limit() : -1;
+            }
+            int pending = window.remaining();
+            if (window.position() == 0 && window.limit() == window.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocate(window.capacity() * 2);
+                larger.put(window);
+                window = larger;
+            } else {
+                window.compact();
+            }
+            try {
+                if (channel.read(window) < 0) {
+                    endOfFile = true;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            window.flip();
+            scanFrom = pending;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
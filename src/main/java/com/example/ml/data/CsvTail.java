@@ -0,0 +1,158 @@
+package com.example.ml.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Follows a CSV file that another process appends to (header line, numeric features, integer
+// label last), like `tail -f`. Each poll returns the complete rows written since the previous one,
+// up to maxRows, as a micro-batch for partialFit; a line still being written is kept until its
+// newline arrives. A file that shrinks is taken to have been rotated and is read from the start.
+// Malformed rows are skipped and counted rather than thrown, so one bad line cannot stall the feed.
+public class CsvTail implements AutoCloseable {
+    private static final int READ_BYTES = 1 << 16;
+    private static final int MALFORMED = Integer.MIN_VALUE;
+
+    private final String filePath;
+    private final int numFeatures;
+    private final int maxRows;
+    private final FileChannel channel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BYTES);
+    private final double[] row;
+    private ByteBuffer line = ByteBuffer.allocate(256);
+    private long position;
+    private boolean headerSkipped;
+    private long lineNumber;
+    private long skippedRows;
+    // First malformed line of the current poll, for its summary; 0 when there is none
+    private long firstSkippedLine;
+
+    public CsvTail(String filePath, int numFeatures, int maxRows) {
+        this.filePath = filePath;
+        this.numFeatures = numFeatures;
+        this.maxRows = maxRows;
+        this.row = new double[numFeatures];
+        try {
+            this.channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Never blocks; returns an empty list when no complete row has been appended.
+    public <F extends Number, L extends Number> List<Instance<F, L>> poll() {
+        RowBlock block = new RowBlock(maxRows, numFeatures);
+        long skippedBefore = skippedRows;
+        firstSkippedLine = 0;
+        try {
+            if (channel.size() < position) {
+                position = 0;
+                headerSkipped = false;
+                lineNumber = 0;
+                line.clear();
+            }
+            while (!block.isFull()) {
+                readBuffer.clear();
+                int read = channel.read(readBuffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                readBuffer.flip();
+                while (readBuffer.hasRemaining() && !block.isFull()) {
+                    byte b = readBuffer.get();
+                    position++;
+                    if (b == '\n') {
+                        endLine(block);
+                    } else {
+                        append(b);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        // One line per poll, however many rows a corrupt write produced
+        if (skippedRows > skippedBefore) {
+            System.out.println("Skipped " + (skippedRows - skippedBefore) + " malformed CSV lines in " + filePath
+                    + " starting at line " + firstSkippedLine + " (" + skippedRows + " in total)");
+        }
+        return block.asInstances();
+    }
+
+    private void append(byte b) {
+        if (!line.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(line.capacity() * 2);
+            line.flip();
+            larger.put(line);
+            line = larger;
+        }
+        line.put(b);
+    }
+
+    private void endLine(RowBlock block) {
+        int end = line.position();
+        if (end > 0 && line.get(end - 1) == '\r') {
+            end--;
+        }
+        lineNumber++;
+        if (!headerSkipped) {
+            headerSkipped = true;
+        } else if (end > 0) {
+            int label = parseRow(end);
+            if (label == MALFORMED) {
+                if (firstSkippedLine == 0) {
+                    firstSkippedLine = lineNumber;
+                }
+                skippedRows++;
+            } else {
+                block.addRow(row, label);
+            }
+        }
+        line.clear();
+    }
+
+    // Fills row from the current line and returns its label, or MALFORMED when a field does not
+    // parse or the column count is wrong.
+    private int parseRow(int end) {
+        int field = 0;
+        int start = 0;
+        double label = 0.0;
+        try {
+            for (int i = 0; i <= end; i++) {
+                if (i == end || line.get(i) == ',') {
+                    if (field > numFeatures) {
+                        return MALFORMED;
+                    }
+                    double value = ByteNumberParser.parseDouble(line, start, i);
+                    if (field < numFeatures) {
+                        row[field] = value;
+                    } else {
+                        label = value;
+                    }
+                    field++;
+                    start = i + 1;
+                }
+            }
+        } catch (NumberFormatException e) {
+            return MALFORMED;
+        }
+        return field == numFeatures + 1 ? (int) label : MALFORMED;
+    }
+
+    // Rows dropped because they did not parse; a feed keeps going past them.
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class DataLoader<F, L> {
@@ -43,5 +44,107 @@ public class DataLoader<F, L> {
         }
         return instances;
     }
-}
 
+    // Sparse text format, one row per line: "<label> <index>:<value> ...", with 1-based indices.
+    // Binary SVMlight files label the classes -1/+1; -1 is loaded as 0 so labels follow the 0/1
+    // convention the models and metrics use. Other labels are kept as they are.
+    public SparseMatrix loadFromSvmLight(String filePath, int numFeatures) {
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(numFeatures);
+        int[] indices = new int[16];
+        double[] values = new double[16];
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].isEmpty() || tokens[0].startsWith("#")) {
+                    continue;
+                }
+                if (tokens.length - 1 > indices.length) {
+                    indices = new int[tokens.length - 1];
+                    values = new double[tokens.length - 1];
+                }
+                int label;
+                try {
+                    label = (int) Double.parseDouble(tokens[0]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Malformed SVMlight line " + lineNumber + " in " + filePath
+                            + ": bad label '" + tokens[0] + "'", e);
+                }
+                int nonZeros = 0;
+                for (int t = 1; t < tokens.length; t++) {
+                    if (tokens[t].startsWith("#")) {
+                        break;
+                    }
+                    // Ranking query ids are not features
+                    if (tokens[t].startsWith("qid:")) {
+                        continue;
+                    }
+                    int colon = tokens[t].indexOf(':');
+                    int index;
+                    try {
+                        if (colon <= 0) {
+                            throw new NumberFormatException("missing index:value separator");
+                        }
+                        index = Integer.parseInt(tokens[t], 0, colon, 10);
+                        values[nonZeros] = Double.parseDouble(tokens[t].substring(colon + 1));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Malformed SVMlight line " + lineNumber + " in " + filePath
+                                + ": bad token '" + tokens[t] + "'", e);
+                    }
+                    if (index < 1 || index > numFeatures) {
+                        throw new IllegalArgumentException("Malformed SVMlight line " + lineNumber + " in " + filePath
+                                + ": index " + index + " outside 1.." + numFeatures);
+                    }
+                    indices[nonZeros++] = index - 1;
+                }
+                builder.addRow(indices, values, nonZeros, label == -1 ? 0 : label);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return builder.build();
+    }
+
+    // Streams a CSV file through an encoder (hashing / dictionary / numeric per column) straight
+    // into CSR rows; categorical columns never become Strings.
+    public SparseMatrix loadEncoded(String filePath, FeatureEncoder encoder) {
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(encoder.numFeatures());
+        try (CsvLineReader lines = new CsvLineReader(filePath)) {
+            int numColumns = lines.header().length;
+            encoder.checkColumns(numColumns);
+            int[] indices = new int[numColumns];
+            double[] values = new double[numColumns];
+            while (lines.nextLine()) {
+                lines.requireFields(numColumns);
+                int nonZeros = encoder.encodeSparse(lines, indices, values);
+                builder.addRow(indices, values, nonZeros, (int) lines.parseField(numColumns - 1));
+            }
+        }
+        return builder.build();
+    }
+
+    // Parallel mode: parses newline-aligned byte ranges on the common ForkJoinPool straight into
+    // primitive columns. Features and labels are read as numbers, the parsers are not used.
+    public ColumnarMatrix loadFromCsvParallel(String filePath) {
+        return loadFromCsvParallel(filePath, ForkJoinPool.commonPool());
+    }
+
+    public ColumnarMatrix loadFromCsvParallel(String filePath, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return loadFromCsvParallel(filePath, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public ColumnarMatrix loadFromCsvParallel(String filePath, ForkJoinPool pool) {
+        try {
+            return ParallelCsvReader.read(filePath, pool, ParallelCsvReader.DEFAULT_CHUNK_BYTES);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -3,113 +3,228 @@ package com.example.ml.data;
 import com.example.ml.utils.SplitResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Collections;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
 
+// One backing matrix plus a row order. Splits and folds are int[] index views over the
+// matrix; standardized splits read through a StandardizedMatrix instead of rewriting rows,
+// so any number of splits can coexist without copying or contaminating each other.
 public class Dataset<F extends Number, L extends Number> {
-    List<Instance<F, L>> instances;
-    double[] means;
-    double[] stdDevs;
-    private final Function<String, F> featureParser;
+    private static final double DEFAULT_VALIDATION_RATIO = 0.15;
 
-    public Dataset(List<Instance<F, L>> instances, int inputSize, Function<String, F> featureParser) {
-        this.instances = instances;
-        this.means = new double[inputSize];
-        this.stdDevs = new double[inputSize];
-        this.featureParser = featureParser;
+    FeatureMatrix matrix;
+    int[] order;
+    FeatureStats statistics;
+
+    public Dataset(List<Instance<F, L>> instances, int inputSize) {
+        this(ColumnarMatrix.fromInstances(instances, inputSize));
+    }
+
+    public Dataset(FeatureMatrix matrix) {
+        this.matrix = matrix;
+        this.order = new int[matrix.numRows()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.statistics = new FeatureStats(matrix.numFeatures());
     }
 
+    // Row views in the current order, backed by the matrix.
     public List<Instance<F, L>> getInstances() {
-        return instances;
+        return new IndexView(matrix, order).asInstances();
+    }
+
+    public FeatureMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int[] getOrder() {
+        return order;
     }
 
     public void convertLabelsToMinusOne() {
-        for (Instance<F, L> instance : instances) {
-            if (instance.getLabel().intValue() == 0) {
-                instance.setLabel((L) Integer.valueOf(-1));
+        for (int i = 0; i < matrix.numRows(); i++) {
+            if (matrix.getLabel(i) == 0) {
+                matrix.setLabel(i, -1);
             }
         }
     }
 
-    public void computeMeans(List<Instance<F, L>> trainInstances) {
-        for(int j = 0; j < means.length; j++) {
-            double sum = 0.0;
-            for(int i = 0; i < trainInstances.size(); i++){
-                List<F> features = trainInstances.get(i).getFeatures();
-                sum += features.get(j).doubleValue();
-            }
-            means[j] = sum / trainInstances.size();
-        }
+    public FeatureStats getStatistics() {
+        return statistics;
     }
 
-    public void computeStdDevs(List<Instance<F, L>> trainInstances){
-        for (int j = 0; j < stdDevs.length; j++) {
-            double sum = 0.0;
-            for(int i = 0; i < trainInstances.size(); i++){
-                double deviation = trainInstances.get(i).getFeatures().get(j).doubleValue() - this.means[j];
-                deviation *= deviation;
-                sum += deviation;
-            }
-            double variance = sum / trainInstances.size();
-            stdDevs[j] = Math.sqrt(variance);
-            if(stdDevs[j] == 0){
-                stdDevs[j] = 1;
-            }
-        }
+    public void computeStatistics(List<Instance<F, L>> trainInstances) {
+        this.statistics = FeatureStats.compute(trainInstances, matrix.numFeatures());
     }
 
     public void standardize(List<Instance<F, L>> dataSet){
         for(int i = 0; i < dataSet.size(); i++){
             Instance<F, L> instance = dataSet.get(i);
-            List<F> features = instance.getFeatures();
-            for(int j = 0; j <  features.size(); j++){
-                double scaledFeature = (features.get(j).doubleValue() - this.means[j]) / this.stdDevs[j];
-                F feature = featureParser.apply(Double.toString(scaledFeature));
-                instance.setFeature(feature, j);
+            for(int j = 0; j < statistics.numFeatures(); j++){
+                double scaledFeature = (instance.getFeatureValue(j) - statistics.getMean(j)) / statistics.getStdDev(j);
+                instance.setFeatureValue(j, scaledFeature);
             }
         }
     }
 
     public SplitResult<F, L> trainTestSplit(double trainRatio, Boolean standardize){
-        int trainSize = (int) (instances.size() * trainRatio);
-        int validationSize = (int) (instances.size() * 0.15);
-
-        List<Instance<F, L>> trainSet = new ArrayList<>(instances.subList(0, trainSize));
-        List<Instance<F, L>> validationSet = new ArrayList<>(instances.subList(trainSize, trainSize + validationSize));
-        List<Instance<F, L>> testSet = new ArrayList<>(instances.subList(trainSize + validationSize, instances.size()));
-
-        computeMeans(trainSet);
-        computeStdDevs(trainSet);
-
-        if(standardize){
-            computeMeans(trainSet);
-            computeStdDevs(trainSet);
-            standardize(trainSet);
-            standardize(validationSet);
-            standardize(testSet);
+        return trainTestSplit(trainRatio, DEFAULT_VALIDATION_RATIO, standardize);
+    }
+
+    public SplitResult<F, L> trainTestSplit(double trainRatio, double validationRatio, boolean standardize){
+        return split(indexSplit(trainRatio, validationRatio), standardize);
+    }
+
+    public SplitResult<F, L> stratifiedSplit(double trainRatio, double validationRatio, boolean standardize){
+        return split(stratifiedIndexSplit(trainRatio, validationRatio), standardize);
+    }
+
+    // Contiguous train / validation / test ranges of the current order.
+    public IndexSplit indexSplit(double trainRatio, double validationRatio) {
+        int trainSize = (int) (order.length * trainRatio);
+        int validationSize = (int) (order.length * validationRatio);
+        checkSizes(trainSize, validationSize, order.length);
+        return new IndexSplit(
+                Arrays.copyOfRange(order, 0, trainSize),
+                Arrays.copyOfRange(order, trainSize, trainSize + validationSize),
+                Arrays.copyOfRange(order, trainSize + validationSize, order.length));
+    }
+
+    // Same ratios applied per label, so every split keeps the label distribution of the dataset.
+    public IndexSplit stratifiedIndexSplit(double trainRatio, double validationRatio) {
+        IntList train = new IntList(order.length);
+        IntList validation = new IntList(order.length);
+        IntList test = new IntList(order.length);
+        for (int[] rows : rowsByLabel().values()) {
+            int trainSize = (int) (rows.length * trainRatio);
+            int validationSize = (int) (rows.length * validationRatio);
+            checkSizes(trainSize, validationSize, rows.length);
+            for (int i = 0; i < rows.length; i++) {
+                if (i < trainSize) {
+                    train.add(rows[i]);
+                } else if (i < trainSize + validationSize) {
+                    validation.add(rows[i]);
+                } else {
+                    test.add(rows[i]);
+                }
+            }
+        }
+        return new IndexSplit(train.toArray(), validation.toArray(), test.toArray());
+    }
+
+    // k folds over the current order. Fold i tests on the i-th slice; of the remaining rows the
+    // last validationRatio share validates and the rest trains. Stratified folds deal each
+    // label's rows round-robin so every fold keeps the label distribution.
+    public List<IndexSplit> kFold(int k, double validationRatio, boolean stratified) {
+        if (k < 2 || k > order.length) {
+            throw new IllegalArgumentException("k must be between 2 and the number of rows, got " + k);
+        }
+        int[] foldOf = new int[matrix.numRows()];
+        if (stratified) {
+            int next = 0;
+            for (int[] rows : rowsByLabel().values()) {
+                for (int row : rows) {
+                    foldOf[row] = next;
+                    next = (next + 1) % k;
+                }
+            }
+        } else {
+            for (int i = 0; i < order.length; i++) {
+                foldOf[order[i]] = (int) ((long) i * k / order.length);
+            }
         }
 
-//      Debugging purposes:
-        double[] checkSums = new double[means.length];
-        double[] checkSqSums = new double[means.length];
-        for (Instance<F, L> inst : trainSet) {
-            for (int j = 0; j < means.length; j++) {
-                double val = inst.getFeatures().get(j).doubleValue();
-                checkSums[j] += val;
-                checkSqSums[j] += val * val;
+        List<IndexSplit> folds = new ArrayList<>(k);
+        for (int fold = 0; fold < k; fold++) {
+            IntList rest = new IntList(order.length);
+            IntList test = new IntList(order.length / k + 1);
+            for (int row : order) {
+                if (foldOf[row] == fold) {
+                    test.add(row);
+                } else {
+                    rest.add(row);
+                }
             }
+            int[] restRows = rest.toArray();
+            int validationSize = (int) (restRows.length * validationRatio);
+            int trainSize = restRows.length - validationSize;
+            folds.add(new IndexSplit(
+                    Arrays.copyOfRange(restRows, 0, trainSize),
+                    Arrays.copyOfRange(restRows, trainSize, restRows.length),
+                    test.toArray()));
         }
-        for (int j = 0; j < means.length; j++) {
-            double mean = checkSums[j] / trainSet.size();
-            double variance = checkSqSums[j] / trainSet.size() - mean * mean;
-            double std = Math.sqrt(variance);
-//            System.out.println("Feature " + j + ": Mean=" + mean + ", Std=" + std);
+        return folds;
+    }
+
+    // Standardization statistics come from the training rows only and are exposed via getStatistics().
+    public SplitResult<F, L> split(IndexSplit indices, boolean standardize) {
+        FeatureMatrix source = matrix;
+        if (standardize) {
+            statistics = FeatureStats.compute(indices.trainView(matrix));
+            source = new StandardizedMatrix(matrix, statistics);
         }
-        return new SplitResult<>(trainSet, validationSet, testSet);
+        return new SplitResult<>(
+                indices.trainView(source).asInstances(),
+                indices.validationView(source).asInstances(),
+                indices.testView(source).asInstances(),
+                source, indices);
     }
 
     public void shuffle() {
-        Collections.shuffle(instances);
+        shuffle(new Random());
+    }
+
+    public void shuffle(long seed) {
+        shuffle(new Random(seed));
+    }
+
+    private void shuffle(Random random) {
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int row = order[i];
+            order[i] = order[j];
+            order[j] = row;
+        }
+    }
+
+    // Rows of each label in the current order, keyed by label.
+    private Map<Integer, int[]> rowsByLabel() {
+        Map<Integer, IntList> buffers = new TreeMap<>();
+        for (int row : order) {
+            buffers.computeIfAbsent(matrix.getLabel(row), label -> new IntList(16)).add(row);
+        }
+        Map<Integer, int[]> rows = new TreeMap<>();
+        buffers.forEach((label, buffer) -> rows.put(label, buffer.toArray()));
+        return rows;
+    }
+
+    private static void checkSizes(int trainSize, int validationSize, int total) {
+        if (trainSize < 0 || validationSize < 0 || trainSize + validationSize > total) {
+            throw new IllegalArgumentException("Train and validation ratios exceed the dataset");
+        }
+    }
+
+    private static class IntList {
+        int[] values;
+        int size;
+
+        IntList(int capacity) {
+            this.values = new int[Math.max(capacity, 1)];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
     }
 }
@@ -0,0 +1,143 @@
+package com.example.ml.data;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Encodes the raw bytes of each CSV feature column while a file is streamed:
+//   NUMERIC  parsed value in its own slot
+//   ORDINAL  dictionary id in its own slot (useful for trees)
+//   ONE_HOT  dictionary id selects one of maxCategories slots; later categories share the last one
+//   HASHED   murmur3 of (column, bytes) selects one of hashBuckets slots shared by all hashed columns
+//   IGNORE   dropped
+// Output layout is [one slot per NUMERIC/ORDINAL column][ONE_HOT ranges][hash buckets].
+public class FeatureEncoder {
+    public enum Encoding { NUMERIC, ORDINAL, ONE_HOT, HASHED, IGNORE }
+
+    private final Encoding[] encodings;
+    private final int[] offsets;
+    private final ByteDictionary[] dictionaries;
+    private final int maxCategories;
+    private final int hashOffset;
+    private final int hashBuckets;
+    private final int numFeatures;
+
+    private final int[] scratchIndices;
+    private final double[] scratchValues;
+
+    // encodings has one entry per feature column; the label is always the last CSV column
+    public FeatureEncoder(Encoding[] encodings, int maxCategories, int hashBuckets) {
+        this.encodings = encodings.clone();
+        this.offsets = new int[encodings.length];
+        this.dictionaries = new ByteDictionary[encodings.length];
+        this.maxCategories = maxCategories;
+        this.hashBuckets = hashBuckets;
+
+        int next = 0;
+        for (int c = 0; c < encodings.length; c++) {
+            if (encodings[c] == Encoding.NUMERIC || encodings[c] == Encoding.ORDINAL) {
+                offsets[c] = next++;
+            }
+        }
+        for (int c = 0; c < encodings.length; c++) {
+            if (encodings[c] == Encoding.ONE_HOT) {
+                if (maxCategories < 1) {
+                    throw new IllegalArgumentException("One-hot columns need maxCategories >= 1");
+                }
+                offsets[c] = next;
+                next += maxCategories;
+            }
+            if (encodings[c] == Encoding.ORDINAL || encodings[c] == Encoding.ONE_HOT) {
+                dictionaries[c] = new ByteDictionary();
+            }
+            if (encodings[c] == Encoding.HASHED && hashBuckets < 1) {
+                throw new IllegalArgumentException("Hashed columns need hashBuckets >= 1");
+            }
+        }
+        this.hashOffset = next;
+        this.numFeatures = next + (Arrays.asList(encodings).contains(Encoding.HASHED) ? hashBuckets : 0);
+        this.scratchIndices = new int[encodings.length];
+        this.scratchValues = new double[encodings.length];
+    }
+
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    // Category name behind a dictionary id of an ORDINAL or ONE_HOT column.
+    public String getCategory(int column, int id) {
+        return dictionaries[column].getKey(id);
+    }
+
+    public int getCategoryCount(int column) {
+        return dictionaries[column].size();
+    }
+
+    void checkColumns(int numColumns) {
+        if (numColumns != encodings.length + 1) {
+            throw new IllegalArgumentException("Encoder has " + encodings.length + " feature columns but the file has "
+                    + (numColumns - 1));
+        }
+    }
+
+    // Writes the non-zeros of the current line into indices/values and returns their count.
+    // Hash collisions can repeat an index; SparseMatrix.Builder sums repeated indices.
+    int encodeSparse(CsvLineReader line, int[] indices, double[] values) {
+        ByteBuffer bytes = line.bytes();
+        int nonZeros = 0;
+        for (int c = 0; c < encodings.length; c++) {
+            int from = trimStart(bytes, line.fieldStart(c), line.fieldEnd(c));
+            int to = trimEnd(bytes, from, line.fieldEnd(c));
+            switch (encodings[c]) {
+                case NUMERIC -> {
+                    double value = ByteNumberParser.parseDouble(bytes, from, to);
+                    if (value != 0.0) {
+                        indices[nonZeros] = offsets[c];
+                        values[nonZeros++] = value;
+                    }
+                }
+                case ORDINAL -> {
+                    int id = dictionaries[c].getOrAdd(bytes, from, to, Murmur3.hash(bytes, from, to, 0));
+                    if (id != 0) {
+                        indices[nonZeros] = offsets[c];
+                        values[nonZeros++] = id;
+                    }
+                }
+                case ONE_HOT -> {
+                    int id = dictionaries[c].getOrAdd(bytes, from, to, Murmur3.hash(bytes, from, to, 0));
+                    indices[nonZeros] = offsets[c] + Math.min(id, maxCategories - 1);
+                    values[nonZeros++] = 1.0;
+                }
+                case HASHED -> {
+                    int hash = Murmur3.hash(bytes, from, to, c);
+                    indices[nonZeros] = hashOffset + Math.floorMod(hash, hashBuckets);
+                    values[nonZeros++] = 1.0;
+                }
+                case IGNORE -> {
+                }
+            }
+        }
+        return nonZeros;
+    }
+
+    void encodeDense(CsvLineReader line, double[] row) {
+        Arrays.fill(row, 0.0);
+        int nonZeros = encodeSparse(line, scratchIndices, scratchValues);
+        for (int k = 0; k < nonZeros; k++) {
+            row[scratchIndices[k]] += scratchValues[k];
+        }
+    }
+
+    private static int trimStart(ByteBuffer bytes, int from, int to) {
+        while (from < to && bytes.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimEnd(ByteBuffer bytes, int from, int to) {
+        while (to > from && bytes.get(to - 1) == ' ') {
+            to--;
+        }
+        return to;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.ml.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Primitive read access to a table of features and integer labels.
+// Models read through this instead of unboxing List<F> rows.
+public interface FeatureMatrix {
+    int numRows();
+
+    int numFeatures();
+
+    double get(int row, int feature);
+
+    int getLabel(int row);
+
+    default void set(int row, int feature, double value) {
+        throw new UnsupportedOperationException("Read-only feature matrix");
+    }
+
+    default void setLabel(int row, int label) {
+        throw new UnsupportedOperationException("Read-only feature matrix");
+    }
+
+    // Non-zero iteration; dense matrices report every feature.
+    default boolean isSparse() {
+        return false;
+    }
+
+    default int nonZeroCount(int row) {
+        return numFeatures();
+    }
+
+    default int nonZeroIndex(int row, int k) {
+        return k;
+    }
+
+    default double nonZeroValue(int row, int k) {
+        return get(row, k);
+    }
+
+    default void copyRow(int row, double[] dest) {
+        for (int j = 0; j < dest.length; j++) {
+            dest[j] = get(row, j);
+        }
+    }
+
+    // Dense dot product of a row with a weight vector.
+    default double dot(int row, double[] weights) {
+        double sum = 0.0;
+        for (int j = 0; j < weights.length; j++) {
+            sum += get(row, j) * weights[j];
+        }
+        return sum;
+    }
+
+    default <F extends Number, L extends Number> List<Instance<F, L>> asInstances() {
+        List<Instance<F, L>> views = new ArrayList<>(numRows());
+        for (int i = 0; i < numRows(); i++) {
+            views.add(new RowView<>(this, i));
+        }
+        return views;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ml.data;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+// Per-feature count, mean, M2 (sum of squared deviations), min and max, accumulated in a
+// single pass with Welford's update. Partial results from disjoint chunks are combined with
+// Chan et al.'s pairwise merge, so statistics can be computed in parallel.
+public class FeatureStats {
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    long count;
+    final double[] mean;
+    final double[] m2;
+    final double[] min;
+    final double[] max;
+
+    public FeatureStats(int numFeatures) {
+        this.count = 0;
+        this.mean = new double[numFeatures];
+        this.m2 = new double[numFeatures];
+        this.min = new double[numFeatures];
+        this.max = new double[numFeatures];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    public static FeatureStats compute(FeatureMatrix matrix) {
+        return compute(matrix, ForkJoinPool.commonPool());
+    }
+
+    public static FeatureStats compute(FeatureMatrix matrix, ForkJoinPool pool) {
+        return pool.invoke(new StatsTask(matrix, 0, matrix.numRows()));
+    }
+
+    public static <F, L> FeatureStats compute(List<Instance<F, L>> instances, int numFeatures) {
+        FeatureMatrix rows = new FeatureMatrix() {
+            @Override
+            public int numRows() {
+                return instances.size();
+            }
+
+            @Override
+            public int numFeatures() {
+                return numFeatures;
+            }
+
+            @Override
+            public double get(int row, int feature) {
+                return instances.get(row).getFeatureValue(feature);
+            }
+
+            @Override
+            public int getLabel(int row) {
+                return ((Number) instances.get(row).getLabel()).intValue();
+            }
+        };
+        return compute(rows);
+    }
+
+    public void add(double[] row) {
+        count++;
+        for (int j = 0; j < mean.length; j++) {
+            double value = row[j];
+            double delta = value - mean[j];
+            mean[j] += delta / count;
+            m2[j] += delta * (value - mean[j]);
+            min[j] = Math.min(min[j], value);
+            max[j] = Math.max(max[j], value);
+        }
+    }
+
+    // Column-wise accumulation of rows [from, to) into an empty accumulator.
+    void addRange(FeatureMatrix matrix, int from, int to) {
+        if (count != 0) {
+            throw new IllegalStateException("addRange requires an empty accumulator");
+        }
+        for (int j = 0; j < mean.length; j++) {
+            long n = 0;
+            double columnMean = 0.0;
+            double columnM2 = 0.0;
+            double columnMin = Double.POSITIVE_INFINITY;
+            double columnMax = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double value = matrix.get(i, j);
+                n++;
+                double delta = value - columnMean;
+                columnMean += delta / n;
+                columnM2 += delta * (value - columnMean);
+                columnMin = Math.min(columnMin, value);
+                columnMax = Math.max(columnMax, value);
+            }
+            mean[j] = columnMean;
+            m2[j] = columnM2;
+            min[j] = columnMin;
+            max[j] = columnMax;
+        }
+        count = to - from;
+    }
+
+    public void merge(FeatureStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        for (int j = 0; j < mean.length; j++) {
+            double delta = other.mean[j] - mean[j];
+            mean[j] += delta * other.count / total;
+            m2[j] += other.m2[j] + delta * delta * ((double) count * other.count / total);
+            min[j] = Math.min(min[j], other.min[j]);
+            max[j] = Math.max(max[j], other.max[j]);
+        }
+        count = total;
+    }
+
+    // In-place (x - mean) / stdDev on every row of the matrix; columnar storage is scaled column-parallel.
+    public void standardize(FeatureMatrix matrix) {
+        if (matrix instanceof ColumnarMatrix columnar) {
+            IntStream.range(0, mean.length).parallel()
+                    .forEach(j -> standardizeColumn(columnar.columns[j], j));
+            return;
+        }
+        for (int j = 0; j < mean.length; j++) {
+            double columnMean = mean[j];
+            double columnStdDev = getStdDev(j);
+            for (int i = 0; i < matrix.numRows(); i++) {
+                matrix.set(i, j, (matrix.get(i, j) - columnMean) / columnStdDev);
+            }
+        }
+    }
+
+    private void standardizeColumn(double[] column, int feature) {
+        double columnMean = mean[feature];
+        double columnStdDev = getStdDev(feature);
+        for (int i = 0; i < column.length; i++) {
+            column[i] = (column[i] - columnMean) / columnStdDev;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int numFeatures() {
+        return mean.length;
+    }
+
+    public double getMean(int feature) {
+        return mean[feature];
+    }
+
+    public double getVariance(int feature) {
+        return count > 0 ? m2[feature] / count : 0.0;
+    }
+
+    // Population standard deviation; constant features report 1 so they can be divided by.
+    public double getStdDev(int feature) {
+        double stdDev = Math.sqrt(getVariance(feature));
+        return stdDev == 0 ? 1 : stdDev;
+    }
+
+    public double getMin(int feature) {
+        return min[feature];
+    }
+
+    public double getMax(int feature) {
+        return max[feature];
+    }
+
+    // Forked and joined in one pool, never serialized
+    @SuppressWarnings("serial")
+    private static class StatsTask extends RecursiveTask<FeatureStats> {
+        private final FeatureMatrix matrix;
+        private final int from;
+        private final int to;
+
+        StatsTask(FeatureMatrix matrix, int from, int to) {
+            this.matrix = matrix;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected FeatureStats compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                FeatureStats stats = new FeatureStats(matrix.numFeatures());
+                stats.addRange(matrix, from, to);
+                return stats;
+            }
+            int mid = (from + to) >>> 1;
+            StatsTask left = new StatsTask(matrix, from, mid);
+            StatsTask right = new StatsTask(matrix, mid, to);
+            right.fork();
+            FeatureStats stats = left.compute();
+            stats.merge(right.join());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ml.data;
+
+// Train / validation / test partition expressed as row indices into one backing matrix.
+// The arrays are shared, not copied; callers must not modify them.
+public class IndexSplit {
+    final int[] train;
+    final int[] validation;
+    final int[] test;
+
+    public IndexSplit(int[] train, int[] validation, int[] test) {
+        this.train = train;
+        this.validation = validation;
+        this.test = test;
+    }
+
+    public int[] getTrain() {
+        return train;
+    }
+
+    public int[] getValidation() {
+        return validation;
+    }
+
+    public int[] getTest() {
+        return test;
+    }
+
+    public IndexView trainView(FeatureMatrix base) {
+        return new IndexView(base, train);
+    }
+
+    public IndexView validationView(FeatureMatrix base) {
+        return new IndexView(base, validation);
+    }
+
+    public IndexView testView(FeatureMatrix base) {
+        return new IndexView(base, test);
+    }
+}
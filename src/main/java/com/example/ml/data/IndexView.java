@@ -0,0 +1,99 @@
+package com.example.ml.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only selection of rows of a backing matrix. Row r of the view is row rows[r] of the base.
+public class IndexView implements FeatureMatrix {
+    private final FeatureMatrix base;
+    private final int[] rows;
+
+    public IndexView(FeatureMatrix base, int[] rows) {
+        this.base = base;
+        this.rows = rows;
+    }
+
+    // Resolves a list of instances to rows of one matrix. Row views over a shared matrix are used
+    // in place; anything else is copied into a ColumnarMatrix once.
+    public static <F extends Number, L extends Number> IndexView of(List<Instance<F, L>> instances) {
+        if (!instances.isEmpty() && instances.get(0) instanceof RowView<F, L> first) {
+            FeatureMatrix base = first.getMatrix();
+            int[] rows = new int[instances.size()];
+            boolean shared = true;
+            for (int i = 0; i < rows.length && shared; i++) {
+                if (instances.get(i) instanceof RowView<F, L> view && view.getMatrix() == base) {
+                    rows[i] = view.getRow();
+                } else {
+                    shared = false;
+                }
+            }
+            if (shared) {
+                return new IndexView(base, rows);
+            }
+        }
+        int numFeatures = instances.isEmpty() ? 0 : instances.get(0).getFeatureCount();
+        int[] rows = new int[instances.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        return new IndexView(ColumnarMatrix.fromInstances(instances, numFeatures), rows);
+    }
+
+    public FeatureMatrix getBase() {
+        return base;
+    }
+
+    public int[] getRows() {
+        return rows;
+    }
+
+    @Override
+    public int numRows() {
+        return rows.length;
+    }
+
+    @Override
+    public int numFeatures() {
+        return base.numFeatures();
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        return base.get(rows[row], feature);
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return base.getLabel(rows[row]);
+    }
+
+    @Override
+    public boolean isSparse() {
+        return base.isSparse();
+    }
+
+    @Override
+    public int nonZeroCount(int row) {
+        return base.nonZeroCount(rows[row]);
+    }
+
+    @Override
+    public int nonZeroIndex(int row, int k) {
+        return base.nonZeroIndex(rows[row], k);
+    }
+
+    @Override
+    public double nonZeroValue(int row, int k) {
+        return base.nonZeroValue(rows[row], k);
+    }
+
+    // Views point straight at the base rows instead of going through this selection.
+    @Override
+    public <F extends Number, L extends Number> List<Instance<F, L>> asInstances() {
+        List<Instance<F, L>> views = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            views.add(new RowView<>(base, row));
+        }
+        return views;
+    }
+}
@@ -16,10 +16,54 @@ public class Instance<F, L> {
         return features;
     }
 
+    public double getFeatureValue(int index) {
+        return ((Number) features.get(index)).doubleValue();
+    }
+
+    public int getFeatureCount() {
+        return features.size();
+    }
+
+    public boolean isSparse() {
+        return false;
+    }
+
+    public int getNonZeroCount() {
+        return getFeatureCount();
+    }
+
+    public int getNonZeroIndex(int k) {
+        return k;
+    }
+
+    public double getNonZeroValue(int k) {
+        return getFeatureValue(k);
+    }
+
+    public void copyFeatures(double[] dest, int offset) {
+        for (int i = 0; i < getFeatureCount(); i++) {
+            dest[offset + i] = getFeatureValue(i);
+        }
+    }
+
+    // Dense dot product with a weight vector.
+    public double dot(double[] weights) {
+        double sum = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += getFeatureValue(i) * weights[i];
+        }
+        return sum;
+    }
+
     public void setFeature(F feature, int index) {
         this.features.set(index, feature);
     }
 
+    @SuppressWarnings("unchecked")
+    public void setFeatureValue(int index, double value) {
+        this.features.set(index, (F) Double.valueOf(value));
+    }
+
     public L getLabel() {
         return label;
     }
@@ -31,8 +75,8 @@ public class Instance<F, L> {
     @Override
     public String toString() {
         return "Instance{" +
-                "features=" + features +
-                ", label=" + label +
+                "features=" + getFeatures() +
+                ", label=" + getLabel() +
                 '}';
     }
 }
@@ -0,0 +1,118 @@
+package com.example.ml.data;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Zero-copy view of a binary dataset file written by BinaryConverter.
+// Columns are mapped in chunks because a single mapping is limited to 2 GB.
+public class MappedMatrix implements FeatureMatrix {
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final BinaryHeader header;
+    private final int numRows;
+    private final DoubleBuffer[][] columns;
+    private final IntBuffer[] labels;
+    private final boolean writable;
+
+    private MappedMatrix(BinaryHeader header, DoubleBuffer[][] columns, IntBuffer[] labels, boolean writable) {
+        this.header = header;
+        this.numRows = (int) header.numRows;
+        this.columns = columns;
+        this.labels = labels;
+        this.writable = writable;
+    }
+
+    public static MappedMatrix open(String path) throws IOException {
+        return open(path, false);
+    }
+
+    // A writable matrix is mapped copy-on-write: set() and setLabel() never reach the file.
+    public static MappedMatrix open(String path, boolean writable) throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY;
+        // Private mappings still require a channel opened for writing.
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(Path.of(path), options)) {
+            BinaryHeader header = BinaryHeader.read(channel);
+            if (header.numRows > Integer.MAX_VALUE) {
+                throw new IOException("Binary dataset has " + header.numRows + " rows, at most "
+                        + Integer.MAX_VALUE + " are supported");
+            }
+            if (channel.size() < header.fileSize()) {
+                throw new IOException("Truncated binary dataset: expected " + header.fileSize()
+                        + " bytes, found " + channel.size());
+            }
+            int numChunks = (int) ((header.numRows + CHUNK_MASK) >>> CHUNK_SHIFT);
+            DoubleBuffer[][] columns = new DoubleBuffer[header.getNumFeatures()][numChunks];
+            IntBuffer[] labels = new IntBuffer[numChunks];
+            for (int c = 0; c < numChunks; c++) {
+                long firstRow = (long) c << CHUNK_SHIFT;
+                long rows = Math.min(header.numRows - firstRow, 1L << CHUNK_SHIFT);
+                for (int j = 0; j < columns.length; j++) {
+                    columns[j][c] = map(channel, mode, header.columnOffset(j) + firstRow * Double.BYTES,
+                            rows * Double.BYTES).asDoubleBuffer();
+                }
+                labels[c] = map(channel, mode, header.labelOffset() + firstRow * Integer.BYTES,
+                        rows * Integer.BYTES).asIntBuffer();
+            }
+            return new MappedMatrix(header, columns, labels, writable);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long position, long size)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    public BinaryHeader getHeader() {
+        return header;
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numFeatures() {
+        return columns.length;
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        return columns[feature][row >>> CHUNK_SHIFT].get(row & CHUNK_MASK);
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return labels[row >>> CHUNK_SHIFT].get(row & CHUNK_MASK);
+    }
+
+    @Override
+    public void set(int row, int feature, double value) {
+        checkWritable();
+        columns[feature][row >>> CHUNK_SHIFT].put(row & CHUNK_MASK, value);
+    }
+
+    @Override
+    public void setLabel(int row, int label) {
+        checkWritable();
+        labels[row >>> CHUNK_SHIFT].put(row & CHUNK_MASK, label);
+    }
+
+    private void checkWritable() {
+        if (!writable) {
+            throw new UnsupportedOperationException("Matrix was mapped read-only");
+        }
+    }
+}
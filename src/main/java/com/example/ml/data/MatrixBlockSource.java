@@ -0,0 +1,48 @@
+package com.example.ml.data;
+
+// Streams any FeatureMatrix in blocks. Over a MappedMatrix only the pages of the
+// current block need to be resident, so the dataset can be larger than the heap.
+public class MatrixBlockSource implements BlockSource {
+    private final FeatureMatrix matrix;
+    private final int blockSize;
+
+    public MatrixBlockSource(FeatureMatrix matrix, int blockSize) {
+        this.matrix = matrix;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public int numFeatures() {
+        return matrix.numFeatures();
+    }
+
+    @Override
+    public int blockSize() {
+        return blockSize;
+    }
+
+    @Override
+    public BlockReader open() {
+        return new BlockReader() {
+            private int nextRow = 0;
+
+            @Override
+            public boolean next(RowBlock block) {
+                block.clear();
+                int numFeatures = matrix.numFeatures();
+                while (nextRow < matrix.numRows() && !block.isFull()) {
+                    int row = block.addRow(matrix.getLabel(nextRow));
+                    for (int j = 0; j < numFeatures; j++) {
+                        block.set(row, j, matrix.get(nextRow, j));
+                    }
+                    nextRow++;
+                }
+                return block.numRows() > 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
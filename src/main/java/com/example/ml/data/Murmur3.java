@@ -0,0 +1,65 @@
+package com.example.ml.data;
+
+import java.nio.ByteBuffer;
+
+// MurmurHash3 x86 32-bit over a byte range, without copying the bytes out.
+final class Murmur3 {
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private Murmur3() {
+    }
+
+    static int hash(ByteBuffer bytes, int from, int to, int seed) {
+        int h = seed;
+        int length = to - from;
+        int blockEnd = from + (length & ~3);
+        for (int i = from; i < blockEnd; i += 4) {
+            int k = (bytes.get(i) & 0xff) | (bytes.get(i + 1) & 0xff) << 8
+                    | (bytes.get(i + 2) & 0xff) << 16 | (bytes.get(i + 3) & 0xff) << 24;
+            h = mixHash(h, k);
+        }
+        int k = 0;
+        switch (length & 3) {
+            case 3:
+                k ^= (bytes.get(blockEnd + 2) & 0xff) << 16;
+                // fall through
+            case 2:
+                k ^= (bytes.get(blockEnd + 1) & 0xff) << 8;
+                // fall through
+            case 1:
+                k ^= bytes.get(blockEnd) & 0xff;
+                h ^= mixKey(k);
+                break;
+            default:
+                break;
+        }
+        return finish(h, length);
+    }
+
+    static int hash(byte[] bytes, int offset, int length, int seed) {
+        return hash(ByteBuffer.wrap(bytes), offset, offset + length, seed);
+    }
+
+    private static int mixKey(int k) {
+        k *= C1;
+        k = Integer.rotateLeft(k, 15);
+        return k * C2;
+    }
+
+    private static int mixHash(int h, int k) {
+        h ^= mixKey(k);
+        h = Integer.rotateLeft(h, 13);
+        return h * 5 + 0xe6546b64;
+    }
+
+    private static int finish(int h, int length) {
+        h ^= length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
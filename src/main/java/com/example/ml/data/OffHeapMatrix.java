@@ -0,0 +1,128 @@
+package com.example.ml.data;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Column-major feature store outside the Java heap, backed by MemorySegments owned by a shared
+// Arena. The GC never scans or copies the data. close() frees (or unmaps) it explicitly; any
+// access afterwards fails with IllegalStateException instead of reading freed memory.
+public class OffHeapMatrix implements FeatureMatrix, AutoCloseable {
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Arena arena;
+    private final MemorySegment features;
+    private final MemorySegment labels;
+    private final int numRows;
+    private final int numFeatures;
+
+    private OffHeapMatrix(Arena arena, MemorySegment features, MemorySegment labels, int numRows, int numFeatures) {
+        this.arena = arena;
+        this.features = features;
+        this.labels = labels;
+        this.numRows = numRows;
+        this.numFeatures = numFeatures;
+    }
+
+    public static OffHeapMatrix allocate(int numRows, int numFeatures) {
+        Arena arena = Arena.ofShared();
+        MemorySegment features = arena.allocate((long) numRows * numFeatures * Double.BYTES, Double.BYTES);
+        MemorySegment labels = arena.allocate((long) numRows * Integer.BYTES, Integer.BYTES);
+        return new OffHeapMatrix(arena, features, labels, numRows, numFeatures);
+    }
+
+    public static OffHeapMatrix copyOf(FeatureMatrix source) {
+        OffHeapMatrix matrix = allocate(source.numRows(), source.numFeatures());
+        for (int j = 0; j < source.numFeatures(); j++) {
+            for (int i = 0; i < source.numRows(); i++) {
+                matrix.set(i, j, source.get(i, j));
+            }
+        }
+        for (int i = 0; i < source.numRows(); i++) {
+            matrix.setLabel(i, source.getLabel(i));
+        }
+        return matrix;
+    }
+
+    // Maps a file written by BinaryConverter as one segment, without the 2 GB limit of
+    // MappedByteBuffer. A writable matrix is mapped copy-on-write and never changes the file.
+    public static OffHeapMatrix map(String binaryPath, boolean writable) throws IOException {
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.PRIVATE : FileChannel.MapMode.READ_ONLY;
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(Path.of(binaryPath), options)) {
+            BinaryHeader header = BinaryHeader.read(channel);
+            if (header.numRows > Integer.MAX_VALUE) {
+                throw new IOException("Binary dataset has " + header.numRows + " rows, at most "
+                        + Integer.MAX_VALUE + " are supported");
+            }
+            if (channel.size() < header.fileSize()) {
+                throw new IOException("Truncated binary dataset: expected " + header.fileSize()
+                        + " bytes, found " + channel.size());
+            }
+            Arena arena = Arena.ofShared();
+            try {
+                MemorySegment file = channel.map(mode, 0, header.fileSize(), arena);
+                MemorySegment features = file.asSlice(header.dataOffset(), header.labelOffset() - header.dataOffset());
+                MemorySegment labels = file.asSlice(header.labelOffset(), header.numRows * Integer.BYTES);
+                return new OffHeapMatrix(arena, features, labels, (int) header.numRows, header.getNumFeatures());
+            } catch (IOException | RuntimeException e) {
+                arena.close();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public int numRows() {
+        return numRows;
+    }
+
+    @Override
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        return features.getAtIndex(DOUBLE, (long) feature * numRows + row);
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return labels.getAtIndex(INT, row);
+    }
+
+    @Override
+    public void set(int row, int feature, double value) {
+        features.setAtIndex(DOUBLE, (long) feature * numRows + row, value);
+    }
+
+    @Override
+    public void setLabel(int row, int label) {
+        labels.setAtIndex(INT, row, label);
+    }
+
+    // Slice of one feature column, for bulk kernels that want to read it directly.
+    public MemorySegment getColumn(int feature) {
+        return features.asSlice((long) feature * numRows * Double.BYTES, (long) numRows * Double.BYTES);
+    }
+
+    public boolean isAlive() {
+        return arena.scope().isAlive();
+    }
+
+    @Override
+    public void close() {
+        if (arena.scope().isAlive()) {
+            arena.close();
+        }
+    }
+}
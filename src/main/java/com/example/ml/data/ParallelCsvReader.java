@@ -0,0 +1,150 @@
+package com.example.ml.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Splits a CSV file into newline-aligned byte ranges and parses them on a ForkJoinPool.
+// A first pass counts rows per range so every range can then be parsed straight into
+// its slot of the final column arrays; no per-chunk buffers have to be stitched.
+class ParallelCsvReader {
+    static final long DEFAULT_CHUNK_BYTES = 16L << 20;
+
+    static ColumnarMatrix read(String filePath, ForkJoinPool pool, long chunkBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = nextLineStart(channel, 0, size);
+            int numFeatures = countColumns(channel, dataStart) - 1;
+
+            List<Chunk> chunks = new ArrayList<>();
+            for (long start = dataStart; start < size; ) {
+                long end = Math.min(start + chunkBytes, size);
+                if (end < size) {
+                    end = nextLineStart(channel, end, size);
+                }
+                chunks.add(new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), start));
+                start = end;
+            }
+
+            List<ForkJoinTask<Integer>> counts = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                counts.add(pool.submit(chunk::countRows));
+            }
+            long totalRows = 0;
+            for (int c = 0; c < chunks.size(); c++) {
+                chunks.get(c).firstRow = (int) totalRows;
+                totalRows += counts.get(c).join();
+            }
+            if (totalRows > Integer.MAX_VALUE) {
+                throw new IOException("CSV has " + totalRows + " rows, at most " + Integer.MAX_VALUE + " are supported");
+            }
+
+            ColumnarMatrix matrix = new ColumnarMatrix((int) totalRows, numFeatures);
+            List<ForkJoinTask<?>> parses = new ArrayList<>();
+            for (Chunk chunk : chunks) {
+                parses.add(pool.submit(() -> chunk.parseInto(matrix)));
+            }
+            for (ForkJoinTask<?> parse : parses) {
+                parse.join();
+            }
+            return matrix;
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static int countColumns(FileChannel channel, long headerLength) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) headerLength);
+        channel.read(buffer, 0);
+        String header = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).strip();
+        return header.split(",").length;
+    }
+
+    private static boolean isBlank(ByteBuffer bytes, int from, int to) {
+        return to == from || (to == from + 1 && bytes.get(from) == '\r');
+    }
+
+    private static class Chunk {
+        final MappedByteBuffer bytes;
+        final long fileOffset;
+        int firstRow;
+
+        Chunk(MappedByteBuffer bytes, long fileOffset) {
+            this.bytes = bytes;
+            this.fileOffset = fileOffset;
+        }
+
+        int countRows() {
+            int rows = 0;
+            int lineStart = 0;
+            int limit = bytes.limit();
+            for (int i = 0; i <= limit; i++) {
+                if (i == limit || bytes.get(i) == '\n') {
+                    if (!isBlank(bytes, lineStart, i)) {
+                        rows++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            return rows;
+        }
+
+        void parseInto(ColumnarMatrix matrix) {
+            int numFeatures = matrix.numFeatures();
+            int row = firstRow;
+            int lineStart = 0;
+            int limit = bytes.limit();
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && bytes.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && bytes.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart) {
+                    int fieldStart = lineStart;
+                    for (int j = 0; j <= numFeatures; j++) {
+                        int fieldEnd = fieldStart;
+                        while (fieldEnd < contentEnd && bytes.get(fieldEnd) != ',') {
+                            fieldEnd++;
+                        }
+                        boolean lastField = j == numFeatures;
+                        if (lastField != (fieldEnd == contentEnd)) {
+                            throw new IllegalArgumentException("Malformed CSV row at byte " + (fileOffset + lineStart)
+                                    + ": expected " + (numFeatures + 1) + " columns");
+                        }
+                        double value = ByteNumberParser.parseDouble(bytes, fieldStart, fieldEnd);
+                        if (lastField) {
+                            matrix.labels[row] = (int) value;
+                        } else {
+                            matrix.columns[j][row] = value;
+                        }
+                        fieldStart = fieldEnd + 1;
+                    }
+                    row++;
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ml.data;
+
+import com.example.ml.utils.Kernels;
+
+import java.util.Random;
+
+// Fixed-capacity, row-major buffer of rows filled by a BlockReader.
+// It is reused between reads, so training memory is bounded by its capacity.
+public class RowBlock implements FeatureMatrix {
+    private final int numFeatures;
+    private final double[] features;
+    private final int[] labels;
+    private final double[] swapRow;
+    private int size;
+
+    public RowBlock(int capacity, int numFeatures) {
+        this.numFeatures = numFeatures;
+        this.features = new double[capacity * numFeatures];
+        this.labels = new int[capacity];
+        this.swapRow = new double[numFeatures];
+        this.size = 0;
+    }
+
+    public int capacity() {
+        return labels.length;
+    }
+
+    public boolean isFull() {
+        return size == labels.length;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Appends a row and returns its index; the caller fills the features.
+    int addRow(int label) {
+        labels[size] = label;
+        return size++;
+    }
+
+    public void addRow(double[] row, int label) {
+        System.arraycopy(row, 0, features, size * numFeatures, numFeatures);
+        labels[size++] = label;
+    }
+
+    public void shuffle(Random random) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int a = i * numFeatures;
+            int b = j * numFeatures;
+            System.arraycopy(features, a, swapRow, 0, numFeatures);
+            System.arraycopy(features, b, features, a, numFeatures);
+            System.arraycopy(swapRow, 0, features, b, numFeatures);
+            int label = labels[i];
+            labels[i] = labels[j];
+            labels[j] = label;
+        }
+    }
+
+    @Override
+    public int numRows() {
+        return size;
+    }
+
+    @Override
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        return features[row * numFeatures + feature];
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return labels[row];
+    }
+
+    @Override
+    public void set(int row, int feature, double value) {
+        features[row * numFeatures + feature] = value;
+    }
+
+    @Override
+    public void setLabel(int row, int label) {
+        labels[row] = label;
+    }
+
+    @Override
+    public void copyRow(int row, double[] dest) {
+        System.arraycopy(features, row * numFeatures, dest, 0, numFeatures);
+    }
+
+    @Override
+    public double dot(int row, double[] weights) {
+        return Kernels.DEFAULT.dot(features, row * numFeatures, weights, numFeatures);
+    }
+
+    // Row r occupies [r * numFeatures, (r + 1) * numFeatures).
+    public double[] getValues() {
+        return features;
+    }
+}
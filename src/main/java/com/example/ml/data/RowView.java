@@ -0,0 +1,106 @@
+package com.example.ml.data;
+
+import java.util.AbstractList;
+import java.util.List;
+
+// Instance adapter over one row of a FeatureMatrix. Holds no feature data of its own,
+// so the existing List<Instance> based Model API keeps working on primitive storage.
+public class RowView<F extends Number, L extends Number> extends Instance<F, L> {
+    private final FeatureMatrix matrix;
+    private final int row;
+
+    public RowView(FeatureMatrix matrix, int row) {
+        super(null, null);
+        this.matrix = matrix;
+        this.row = row;
+    }
+
+    public FeatureMatrix getMatrix() {
+        return matrix;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    // Boxes on access; prefer getFeatureValue on hot paths.
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<F> getFeatures() {
+        return new AbstractList<>() {
+            @Override
+            public F get(int index) {
+                return (F) Double.valueOf(matrix.get(row, index));
+            }
+
+            @Override
+            public F set(int index, F element) {
+                F previous = get(index);
+                matrix.set(row, index, element.doubleValue());
+                return previous;
+            }
+
+            @Override
+            public int size() {
+                return matrix.numFeatures();
+            }
+        };
+    }
+
+    @Override
+    public double getFeatureValue(int index) {
+        return matrix.get(row, index);
+    }
+
+    @Override
+    public double dot(double[] weights) {
+        return matrix.dot(row, weights);
+    }
+
+    @Override
+    public int getFeatureCount() {
+        return matrix.numFeatures();
+    }
+
+    @Override
+    public boolean isSparse() {
+        return matrix.isSparse();
+    }
+
+    @Override
+    public int getNonZeroCount() {
+        return matrix.nonZeroCount(row);
+    }
+
+    @Override
+    public int getNonZeroIndex(int k) {
+        return matrix.nonZeroIndex(row, k);
+    }
+
+    @Override
+    public double getNonZeroValue(int k) {
+        return matrix.nonZeroValue(row, k);
+    }
+
+    @Override
+    public void setFeature(F feature, int index) {
+        matrix.set(row, index, feature.doubleValue());
+    }
+
+    @Override
+    public void setFeatureValue(int index, double value) {
+        matrix.set(row, index, value);
+    }
+
+    // Small label values come from the Integer cache, so this does not allocate.
+    @Override
+    @SuppressWarnings("unchecked")
+    public L getLabel() {
+        return (L) Integer.valueOf(matrix.getLabel(row));
+    }
+
+    @Override
+    public void setLabel(L label) {
+        matrix.setLabel(row, label.intValue());
+    }
+}
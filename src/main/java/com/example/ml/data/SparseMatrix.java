@@ -0,0 +1,189 @@
+package com.example.ml.data;
+
+import java.util.Arrays;
+
+// Compressed sparse rows: the non-zeros of row r are indices/values[rowPointers[r] .. rowPointers[r + 1]),
+// with indices ascending inside a row. Dense get() falls back to a binary search.
+public class SparseMatrix implements FeatureMatrix {
+    private final int numFeatures;
+    private final int[] rowPointers;
+    private final int[] indices;
+    private final double[] values;
+    private final int[] labels;
+
+    public SparseMatrix(int numFeatures, int[] rowPointers, int[] indices, double[] values, int[] labels) {
+        if (rowPointers.length != labels.length + 1 || indices.length != values.length
+                || rowPointers[labels.length] > indices.length) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays");
+        }
+        this.numFeatures = numFeatures;
+        this.rowPointers = rowPointers;
+        this.indices = indices;
+        this.values = values;
+        this.labels = labels;
+    }
+
+    public static SparseMatrix fromDense(FeatureMatrix dense) {
+        Builder builder = new Builder(dense.numFeatures());
+        int[] rowIndices = new int[dense.numFeatures()];
+        double[] rowValues = new double[dense.numFeatures()];
+        for (int i = 0; i < dense.numRows(); i++) {
+            int nonZeros = 0;
+            for (int j = 0; j < dense.numFeatures(); j++) {
+                double value = dense.get(i, j);
+                if (value != 0.0) {
+                    rowIndices[nonZeros] = j;
+                    rowValues[nonZeros++] = value;
+                }
+            }
+            builder.addRow(rowIndices, rowValues, nonZeros, dense.getLabel(i));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int numRows() {
+        return labels.length;
+    }
+
+    @Override
+    public int numFeatures() {
+        return numFeatures;
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        int position = Arrays.binarySearch(indices, rowPointers[row], rowPointers[row + 1], feature);
+        return position >= 0 ? values[position] : 0.0;
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return labels[row];
+    }
+
+    @Override
+    public void setLabel(int row, int label) {
+        labels[row] = label;
+    }
+
+    @Override
+    public boolean isSparse() {
+        return true;
+    }
+
+    @Override
+    public int nonZeroCount(int row) {
+        return rowPointers[row + 1] - rowPointers[row];
+    }
+
+    @Override
+    public int nonZeroIndex(int row, int k) {
+        return indices[rowPointers[row] + k];
+    }
+
+    @Override
+    public double nonZeroValue(int row, int k) {
+        return values[rowPointers[row] + k];
+    }
+
+    @Override
+    public void copyRow(int row, double[] dest) {
+        Arrays.fill(dest, 0.0);
+        for (int k = rowPointers[row]; k < rowPointers[row + 1]; k++) {
+            dest[indices[k]] = values[k];
+        }
+    }
+
+    public int[] getRowPointers() {
+        return rowPointers;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    public long nonZeroCount() {
+        return rowPointers[labels.length];
+    }
+
+    // Appends rows one at a time; indices of a row may arrive unsorted or repeated.
+    public static class Builder {
+        private final int numFeatures;
+        private int[] rowPointers = new int[17];
+        private int[] indices = new int[64];
+        private double[] values = new double[64];
+        private int[] labels = new int[16];
+        private int numRows = 0;
+
+        public Builder(int numFeatures) {
+            this.numFeatures = numFeatures;
+        }
+
+        public void addRow(int[] rowIndices, double[] rowValues, int nonZeros, int label) {
+            int start = rowPointers[numRows];
+            if (start + nonZeros > indices.length) {
+                int capacity = Math.max(indices.length * 2, start + nonZeros);
+                indices = Arrays.copyOf(indices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            if (numRows == labels.length) {
+                labels = Arrays.copyOf(labels, labels.length * 2);
+                rowPointers = Arrays.copyOf(rowPointers, labels.length + 1);
+            }
+            for (int k = 0; k < nonZeros; k++) {
+                if (rowIndices[k] < 0 || rowIndices[k] >= numFeatures) {
+                    throw new IllegalArgumentException("Feature index " + rowIndices[k]
+                            + " out of range for " + numFeatures + " features");
+                }
+                indices[start + k] = rowIndices[k];
+                values[start + k] = rowValues[k];
+            }
+            int end = sortRow(start, start + nonZeros);
+            labels[numRows] = label;
+            rowPointers[++numRows] = end;
+        }
+
+        public int numRows() {
+            return numRows;
+        }
+
+        public SparseMatrix build() {
+            int nonZeros = rowPointers[numRows];
+            return new SparseMatrix(numFeatures, Arrays.copyOf(rowPointers, numRows + 1),
+                    Arrays.copyOf(indices, nonZeros), Arrays.copyOf(values, nonZeros),
+                    Arrays.copyOf(labels, numRows));
+        }
+
+        // Insertion sort by index, then sums repeated indices; rows are short and usually ordered.
+        // Returns the new end of the row.
+        private int sortRow(int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                int index = indices[i];
+                double value = values[i];
+                int j = i - 1;
+                while (j >= from && indices[j] > index) {
+                    indices[j + 1] = indices[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                indices[j + 1] = index;
+                values[j + 1] = value;
+            }
+            int end = from;
+            for (int i = from; i < to; i++) {
+                if (end > from && indices[end - 1] == indices[i]) {
+                    values[end - 1] += values[i];
+                } else {
+                    indices[end] = indices[i];
+                    values[end++] = values[i];
+                }
+            }
+            return end;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ml.data;
+
+// Read-only (x - mean) / stdDev view over a backing matrix. Scaling happens on access,
+// so several differently standardized splits can share one unmodified store.
+public class StandardizedMatrix implements FeatureMatrix {
+    private final FeatureMatrix base;
+    private final double[] means;
+    private final double[] inverseStdDevs;
+
+    public StandardizedMatrix(FeatureMatrix base, FeatureStats statistics) {
+        this.base = base;
+        this.means = new double[base.numFeatures()];
+        this.inverseStdDevs = new double[base.numFeatures()];
+        for (int j = 0; j < means.length; j++) {
+            means[j] = statistics.getMean(j);
+            inverseStdDevs[j] = 1.0 / statistics.getStdDev(j);
+        }
+    }
+
+    public FeatureMatrix getBase() {
+        return base;
+    }
+
+    @Override
+    public int numRows() {
+        return base.numRows();
+    }
+
+    @Override
+    public int numFeatures() {
+        return base.numFeatures();
+    }
+
+    @Override
+    public double get(int row, int feature) {
+        return (base.get(row, feature) - means[feature]) * inverseStdDevs[feature];
+    }
+
+    @Override
+    public int getLabel(int row) {
+        return base.getLabel(row);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.ml.evaluation;
+
+// Shared counting loop for the int[] metric overloads.
+final class ConfusionCounts {
+    // Indices into the array returned by count
+    static final int TP = 0;
+    static final int FP = 1;
+    static final int FN = 2;
+    static final int TN = 3;
+
+    private ConfusionCounts() {
+    }
+
+    // Rows labelled neither positive nor negative are not counted.
+    static int[] count(int[] labels, int[] predictions, int positive, int negative) {
+        int[] counts = new int[4];
+        for(int i = 0; i < labels.length; i++) {
+            if(labels[i] == positive){
+                counts[predictions[i] == positive ? TP : FN]++;
+            }
+            else if(labels[i] == negative){
+                counts[predictions[i] == negative ? TN : FP]++;
+            }
+        }
+        return counts;
+    }
+}
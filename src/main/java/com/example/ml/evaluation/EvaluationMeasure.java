@@ -6,4 +6,9 @@ import java.util.List;
 
 public interface EvaluationMeasure<F, L> {
     double evaluate(List<Instance<F, L>> instances, List<L> predictions);
+
+    // Primitive labels and predictions, e.g. from a FeatureMatrix; measures that do not support it throw.
+    default double evaluate(int[] labels, int[] predictions) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not evaluate int[] labels");
+    }
 }
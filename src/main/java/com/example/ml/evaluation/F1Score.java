@@ -13,6 +13,7 @@ public class F1Score<F, L extends Number> implements EvaluationMeasure<F, L> {
         this.falseLabel = falseLabel;
     }
 
+    @Override
     public double evaluate(List<Instance<F, L>> instances, List<L> predictions){
 
         Precision<F, L> precisionObj = new Precision<>(trueLabel, falseLabel);
@@ -23,4 +24,16 @@ public class F1Score<F, L extends Number> implements EvaluationMeasure<F, L> {
 
         return 2 * ((precision * recall) / (precision + recall));
     }
+
+    @Override
+    public double evaluate(int[] labels, int[] predictions){
+
+        Precision<F, L> precisionObj = new Precision<>(trueLabel, falseLabel);
+        Recall<F, L> recallObj = new Recall<>(trueLabel, falseLabel);
+
+        double precision = precisionObj.evaluate(labels, predictions);
+        double recall = recallObj.evaluate(labels, predictions);
+
+        return 2 * ((precision * recall) / (precision + recall));
+    }
 }
@@ -13,6 +13,7 @@ public class Precision<F, L extends Number> implements EvaluationMeasure<F, L> {
         this.falseLabel = falseLabel;
     }
 
+    @Override
     public double evaluate(List<Instance<F, L>> instances, List<L> predictions){
         int tp = 0;
         int fp = 0;
@@ -40,4 +41,11 @@ public class Precision<F, L extends Number> implements EvaluationMeasure<F, L> {
 
         return ((double) tp) / ((double) tp + (double) fp);
     }
+
+    @Override
+    public double evaluate(int[] labels, int[] predictions){
+        int[] counts = ConfusionCounts.count(labels, predictions, trueLabel.intValue(), falseLabel.intValue());
+        return ((double) counts[ConfusionCounts.TP])
+                / ((double) counts[ConfusionCounts.TP] + (double) counts[ConfusionCounts.FP]);
+    }
 }
@@ -0,0 +1,171 @@
+package com.example.ml.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// Just enough of the class file format (JVMS chapter 4) to emit one class of methods over doubles.
+// It writes version 49 class files, which the verifier checks by type inference, so no
+// StackMapTable frames are needed. Throws IllegalStateException when a class file limit is hit.
+final class ClassFileWriter {
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int MAX_POOL_ENTRIES = 65535;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<Object, Integer> entries = new HashMap<>();
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+    private final DataOutputStream methods = new DataOutputStream(methodBytes);
+    private int methodCount;
+
+    int utf8(String value) {
+        Integer index = entries.get(value);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(1);
+            pool.writeUTF(value);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return register(value, 1);
+    }
+
+    int classRef(String internalName) {
+        String key = "C:" + internalName;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        int name = utf8(internalName);
+        write(7, name);
+        return register(key, 1);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        String key = "M:" + owner + '.' + name + descriptor;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        int ownerIndex = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        write(10, ownerIndex, nameAndType);
+        return register(key, 1);
+    }
+
+    int doubleConstant(double value) {
+        Long key = Double.doubleToRawLongBits(value);
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        try {
+            pool.writeByte(6);
+            pool.writeLong(key);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return register(key, 2); // a double takes two constant pool slots
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        String key = "N:" + name + descriptor;
+        Integer index = entries.get(key);
+        if (index != null) {
+            return index;
+        }
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        write(12, nameIndex, descriptorIndex);
+        return register(key, 1);
+    }
+
+    private void write(int tag, int... indices) {
+        try {
+            pool.writeByte(tag);
+            for (int index : indices) {
+                pool.writeShort(index);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int register(Object key, int slots) {
+        int index = poolCount;
+        poolCount += slots;
+        if (poolCount > MAX_POOL_ENTRIES) {
+            throw new IllegalStateException("Constant pool overflow");
+        }
+        entries.put(key, index);
+        return index;
+    }
+
+    void addMethod(int access, String name, String descriptor, int maxStack, int maxLocals, byte[] code, int codeLength) {
+        int nameIndex = utf8(name);
+        int descriptorIndex = utf8(descriptor);
+        int codeAttribute = utf8("Code");
+        try {
+            methods.writeShort(access);
+            methods.writeShort(nameIndex);
+            methods.writeShort(descriptorIndex);
+            methods.writeShort(1);
+            methods.writeShort(codeAttribute);
+            methods.writeInt(12 + codeLength);
+            methods.writeShort(maxStack);
+            methods.writeShort(maxLocals);
+            methods.writeInt(codeLength);
+            methods.write(code, 0, codeLength);
+            methods.writeShort(0); // exception table
+            methods.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (++methodCount > 65535) {
+            throw new IllegalStateException("Too many methods");
+        }
+    }
+
+    byte[] toByteArray(int access, String name, String superName, String... interfaces) {
+        int thisClass = classRef(name);
+        int superClass = classRef(superName);
+        int[] interfaceIndices = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceIndices[i] = classRef(interfaces[i]);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            poolBytes.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaceIndices.length);
+            for (int index : interfaceIndices) {
+                out.writeShort(index);
+            }
+            out.writeShort(0); // fields
+            out.writeShort(methodCount);
+            methodBytes.writeTo(out);
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.ml.model;
 
+import com.example.ml.data.BinnedMatrix;
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.data.IndexView;
 import com.example.ml.data.Instance;
 import com.example.ml.evaluation.*;
 import org.knowm.xchart.SwingWrapper;
@@ -7,29 +10,108 @@ import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class DecisionTree<F extends Number, L extends Number> implements Model<F, L>, Serializable {
-    private static final long serialVersionUID = 1L;
+    // 2: the tree is stored as a FlatTree instead of TreeNode root, so older files fail to load
+    private static final long serialVersionUID = 2L;
 
-    private TreeNode root;
+    // EXACT tries every distinct value; HISTOGRAM quantizes features into at most maxBins bins first
+    public enum SplitMode { EXACT, HISTOGRAM }
+
+    private FlatTree tree;
     private int maxDepth;
     private int minSamplesSplit;
+    private SplitMode splitMode;
+    private int maxBins;
+    private int parallelism; // 1 builds sequentially
 
     public DecisionTree(int maxDepth, int minSamplesSplit) {
+        this(maxDepth, minSamplesSplit, SplitMode.EXACT);
+    }
+
+    public DecisionTree(int maxDepth, int minSamplesSplit, SplitMode splitMode) {
+        this(maxDepth, minSamplesSplit, splitMode, BinnedMatrix.MAX_BINS);
+    }
+
+    public DecisionTree(int maxDepth, int minSamplesSplit, SplitMode splitMode, int maxBins) {
+        this(maxDepth, minSamplesSplit, splitMode, maxBins, 1);
+    }
+
+    public DecisionTree(int maxDepth, int minSamplesSplit, SplitMode splitMode, int maxBins, int parallelism) {
         this.maxDepth = maxDepth;
         this.minSamplesSplit = minSamplesSplit;
+        this.splitMode = splitMode;
+        this.maxBins = maxBins;
+        this.parallelism = parallelism;
     }
 
     @Override
     public void train(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet) {
-        this.root = buildTree(trainSet, 0);
+        IndexView data = IndexView.of(trainSet);
+        if (splitMode == SplitMode.HISTOGRAM) {
+            train(BinnedMatrix.quantize(data, maxBins));
+        } else {
+            train(data.getBase(), data.getRows(), null);
+        }
         // Optionally, evaluate on validation set after training
         evaluateAndStore(validationSet, "Validation");
     }
 
+    // Histogram training on data that is already quantized, so the bins can be shared between trees
+    public void train(BinnedMatrix binned) {
+        int[] rows = new int[binned.numRows()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = i;
+        }
+        train(binned, rows, null);
+    }
+
+    // A sampler limits each node to a random feature subset.
+    void train(FeatureMatrix data, int[] rows, FeatureSampler sampler) {
+        ForkJoinPool pool = createPool();
+        try {
+            this.tree = FlatTree.compile(new ExactTreeBuilder(data, rows, maxDepth, minSamplesSplit, pool)
+                    .withFeatureSampler(sampler).build());
+        } finally {
+            shutdown(pool);
+        }
+    }
+
+    // Exact training on columns presorted once for many trees; counts[i] is how often sample i was drawn.
+    void train(ExactTreeBuilder.Presorted presorted, int[] counts, FeatureSampler sampler) {
+        ForkJoinPool pool = createPool();
+        try {
+            this.tree = FlatTree.compile(new ExactTreeBuilder(presorted, counts, maxDepth, minSamplesSplit, pool)
+                    .withFeatureSampler(sampler).build());
+        } finally {
+            shutdown(pool);
+        }
+    }
+
+    void train(BinnedMatrix binned, int[] rows, FeatureSampler sampler) {
+        ForkJoinPool pool = createPool();
+        try {
+            this.tree = FlatTree.compile(new HistogramTreeBuilder(binned, rows, maxDepth, minSamplesSplit, pool)
+                    .withFeatureSampler(sampler).build());
+        } finally {
+            shutdown(pool);
+        }
+    }
+
+    private ForkJoinPool createPool() {
+        return parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    private static void shutdown(ForkJoinPool pool) {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
     @Override
     public EvaluationMetrics test(List<Instance<F, L>> testSet) {
         List<L> predictions = getPredictions(testSet);
@@ -47,140 +129,43 @@ public class DecisionTree<F extends Number, L extends Number> implements Model<F
         return new EvaluationMetrics(acc, prec, rec, f1);
     }
 
-    private TreeNode buildTree(List<Instance<F, L>> data, int depth) {
-        TreeNode node = new TreeNode();
-
-        if (depth >= maxDepth || data.size() < minSamplesSplit || isPure(data)) {
-            node.isLeaf = true;
-            node.predictedLabel = majorityLabel(data);
-            return node;
-        }
-
-        BestSplit bestSplit = findBestSplit(data);
-        if (bestSplit == null) {
-            node.isLeaf = true;
-            node.predictedLabel = majorityLabel(data);
-            return node;
-        }
-
-        node.splitFeatureIndex = bestSplit.featureIndex;
-        node.splitThreshold = bestSplit.threshold;
-
-        List<Instance<F, L>> leftData = new ArrayList<>();
-        List<Instance<F, L>> rightData = new ArrayList<>();
-
-        for (Instance<F, L> inst : data) {
-            double value = inst.getFeatures().get(bestSplit.featureIndex).doubleValue();
-            if (value <= bestSplit.threshold) {
-                leftData.add(inst);
-            } else {
-                rightData.add(inst);
-            }
-        }
-
-        node.leftChild = buildTree(leftData, depth + 1);
-        node.rightChild = buildTree(rightData, depth + 1);
-
-        return node;
-    }
-
-    private BestSplit findBestSplit(List<Instance<F, L>> data) {
-        double bestImpurity = Double.POSITIVE_INFINITY;
-        BestSplit bestSplit = null;
-
-        int featureCount = data.get(0).getFeatures().size();
-        for (int f = 0; f < featureCount; f++) {
-            List<Double> values = new ArrayList<>();
-            for (Instance<F, L> inst : data) {
-                values.add(inst.getFeatures().get(f).doubleValue());
-            }
-            Collections.sort(values);
-
-            for (int i = 0; i < values.size() - 1; i++) {
-                if (values.get(i).equals(values.get(i + 1))) continue; // Skip identical values
-                double threshold = (values.get(i) + values.get(i + 1)) / 2.0;
-                double gini = computeSplitGini(data, f, threshold);
-                if (gini < bestImpurity) {
-                    bestImpurity = gini;
-                    bestSplit = new BestSplit(f, threshold, gini);
-                }
-            }
-        }
-        return bestSplit;
-    }
-
-    private double computeSplitGini(List<Instance<F, L>> data, int featureIndex, double threshold) {
-        List<Instance<F, L>> leftData = new ArrayList<>();
-        List<Instance<F, L>> rightData = new ArrayList<>();
-        for (Instance<F, L> inst : data) {
-            double value = inst.getFeatures().get(featureIndex).doubleValue();
-            if (value <= threshold) {
-                leftData.add(inst);
-            } else {
-                rightData.add(inst);
-            }
+    public int predictSingle(Instance<F, L> instance) {
+        int[] feature = tree.feature;
+        int node = 0;
+        while (feature[node] >= 0) {
+            double value = instance.getFeatureValue(feature[node]);
+            node = value <= tree.threshold[node] ? tree.left[node] : tree.right[node];
         }
-
-        double leftGini = gini(leftData);
-        double rightGini = gini(rightData);
-        double leftWeight = (double) leftData.size() / data.size();
-        double rightWeight = (double) rightData.size() / data.size();
-        return leftWeight * leftGini + rightWeight * rightGini;
+        return tree.leafValue[node];
     }
 
-    private double gini(List<Instance<F, L>> data) {
-        if (data.isEmpty()) return 0.0;
-        int count1 = 0; // label=1
-        for (Instance<F, L> inst : data) {
-            if (inst.getLabel().intValue() == 1) {
-                count1++;
-            }
-        }
-        double p1 = (double) count1 / data.size();
-        double p0 = 1.0 - p1;
-        return 1.0 - (p1 * p1 + p0 * p0);
+    public void predict(double[][] rows, int[] out) {
+        tree.predict(rows, out);
     }
 
-    private boolean isPure(List<Instance<F, L>> data) {
-        if (data.isEmpty()) return true;
-        int firstLabel = data.get(0).getLabel().intValue();
-        for (Instance<F, L> inst : data) {
-            if (inst.getLabel().intValue() != firstLabel) {
-                return false;
-            }
-        }
-        return true;
+    public int[] predict(FeatureMatrix matrix) {
+        int[] out = new int[matrix.numRows()];
+        tree.predict(matrix, out);
+        return out;
     }
 
-    private int majorityLabel(List<Instance<F, L>> data) {
-        int count1 = 0;
-        for (Instance<F, L> inst : data) {
-            if (inst.getLabel().intValue() == 1) {
-                count1++;
+    public List<L> getPredictions(List<Instance<F, L>> dataSet) {
+        int[] preds = predict(IndexView.of(dataSet));
+        return new AbstractList<L>() {
+            @Override
+            public L get(int index) {
+                return (L) Integer.valueOf(preds[index]);
             }
-        }
-        return (count1 >= data.size() - count1) ? 1 : 0;
-    }
 
-    public int predictSingle(Instance<F, L> instance) {
-        TreeNode currentNode = root;
-        while (!currentNode.isLeaf) {
-            double value = instance.getFeatures().get(currentNode.splitFeatureIndex).doubleValue();
-            if (value <= currentNode.splitThreshold) {
-                currentNode = currentNode.leftChild;
-            } else {
-                currentNode = currentNode.rightChild;
+            @Override
+            public int size() {
+                return preds.length;
             }
-        }
-        return currentNode.predictedLabel;
+        };
     }
 
-    public List<L> getPredictions(List<Instance<F, L>> dataSet) {
-        List<L> preds = new ArrayList<>();
-        for (Instance<F, L> inst : dataSet) {
-            preds.add((L) Integer.valueOf(predictSingle(inst)));
-        }
-        return preds;
+    public FlatTree getTree() {
+        return tree;
     }
 
     private void evaluateAndStore(List<Instance<F, L>> dataset, String datasetName) {
@@ -202,18 +187,6 @@ public class DecisionTree<F extends Number, L extends Number> implements Model<F
         System.out.println("F1 Score: " + String.format("%.4f", f1));
     }
 
-    private static class BestSplit {
-        int featureIndex;
-        double threshold;
-        double impurity;
-
-        public BestSplit(int featureIndex, double threshold, double impurity) {
-            this.featureIndex = featureIndex;
-            this.threshold = threshold;
-            this.impurity = impurity;
-        }
-    }
-
     // Plotting Validation Metrics
     public void plotMetrics(List<Double> accuracies, List<Double> precisions,
                             List<Double> recalls, List<Double> f1Scores) {
@@ -237,27 +210,4 @@ public class DecisionTree<F extends Number, L extends Number> implements Model<F
 
         new SwingWrapper<>(chart).displayChart();
     }
-
-    // Define TreeNode as a static nested class
-    private static class TreeNode implements Serializable {
-        private static final long serialVersionUID = 1L;
-
-        boolean isLeaf;
-        int predictedLabel;
-
-        int splitFeatureIndex;
-        double splitThreshold;
-
-        TreeNode leftChild;
-        TreeNode rightChild;
-
-        public TreeNode() {
-            this.isLeaf = false;
-            this.predictedLabel = 0;
-            this.splitFeatureIndex = -1;
-            this.splitThreshold = 0.0;
-            this.leftChild = null;
-            this.rightChild = null;
-        }
-    }
 }
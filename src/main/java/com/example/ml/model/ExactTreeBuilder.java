@@ -0,0 +1,344 @@
+package com.example.ml.model;
+
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.utils.IndexSort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+// Exact Gini split search over presorted columns. The columns and every feature's sample order are
+// built once (Presorted) and shared read-only, so a forest keeps one copy of the training data; a tree
+// only holds each sample's bootstrap multiplicity and the distinct samples it drew. A node owns a
+// range of those samples, and a split stably partitions the range. Large nodes walk the shared order
+// and keep the samples they own; small ones sort their own samples, which is cheaper than a full walk.
+// With a pool, subtrees above SUBTREE_THRESHOLD samples become tasks and nodes above FEATURE_THRESHOLD
+// samples search their features in parallel. Sibling nodes touch disjoint ranges and samples, and the
+// per-feature results are reduced in feature order, so the tree equals the sequential one.
+class ExactTreeBuilder {
+    private static final int SUBTREE_THRESHOLD = 2048;
+    private static final int FEATURE_THRESHOLD = 32768;
+
+    // Feature columns of the training rows and each feature's samples in ascending value order.
+    static final class Presorted {
+        final double[][] columns; // [feature][sample]
+        final int[] labels;
+        final int[][] sorted;     // [feature][position] -> sample
+
+        // Sample i is data row rows[i].
+        Presorted(FeatureMatrix data, int[] rows, ForkJoinPool pool) {
+            int n = rows.length;
+            int numFeatures = data.numFeatures();
+            this.columns = new double[numFeatures][n];
+            this.labels = new int[n];
+            this.sorted = new int[numFeatures][];
+            for (int i = 0; i < n; i++) {
+                labels[i] = data.getLabel(rows[i]);
+            }
+            int[] allFeatures = new int[numFeatures];
+            for (int f = 0; f < numFeatures; f++) {
+                allFeatures[f] = f;
+            }
+            forEachFeature(pool, n, allFeatures, f -> {
+                double[] column = columns[f];
+                for (int i = 0; i < n; i++) {
+                    column[i] = data.get(rows[i], f);
+                }
+                int[] order = new int[n];
+                for (int i = 0; i < n; i++) {
+                    order[i] = i;
+                }
+                IndexSort.sortByValue(order, column);
+                sorted[f] = order;
+            });
+        }
+
+        int numSamples() {
+            return labels.length;
+        }
+    }
+
+    private final int maxDepth;
+    private final int minSamplesSplit;
+    private final ForkJoinPool pool;
+
+    private final Presorted data;
+    private final int[] counts;   // [sample] -> times drawn
+    private final int[] samples;  // drawn samples; each node owns a range
+    private final int[] owner;    // [sample] -> first position of the range of the node being built, -1 if not drawn
+    private final int[] buffer;
+    private final int[] allFeatures;
+    private FeatureSampler sampler;
+
+    ExactTreeBuilder(FeatureMatrix data, int[] rows, int maxDepth, int minSamplesSplit) {
+        this(data, rows, maxDepth, minSamplesSplit, null);
+    }
+
+    ExactTreeBuilder(FeatureMatrix data, int[] rows, int maxDepth, int minSamplesSplit, ForkJoinPool pool) {
+        this(new Presorted(data, rows, pool), ones(rows.length), maxDepth, minSamplesSplit, pool);
+    }
+
+    // counts[i] is how many times sample i was drawn, as for a bootstrap sample.
+    ExactTreeBuilder(Presorted data, int[] counts, int maxDepth, int minSamplesSplit, ForkJoinPool pool) {
+        this.maxDepth = maxDepth;
+        this.minSamplesSplit = minSamplesSplit;
+        this.pool = pool;
+        this.data = data;
+        this.counts = counts;
+
+        int n = data.numSamples();
+        int drawn = 0;
+        for (int i = 0; i < n; i++) {
+            if (counts[i] > 0) {
+                drawn++;
+            }
+        }
+        this.samples = new int[drawn];
+        this.owner = new int[n];
+        Arrays.fill(owner, -1);
+        drawn = 0;
+        for (int i = 0; i < n; i++) {
+            if (counts[i] > 0) {
+                owner[i] = 0;
+                samples[drawn++] = i;
+            }
+        }
+        this.buffer = new int[samples.length];
+        int numFeatures = data.columns.length;
+        this.allFeatures = new int[numFeatures];
+        for (int f = 0; f < numFeatures; f++) {
+            allFeatures[f] = f;
+        }
+    }
+
+    private static int[] ones(int n) {
+        int[] counts = new int[n];
+        Arrays.fill(counts, 1);
+        return counts;
+    }
+
+    // Restricts each node's split search to a random feature subset, as in a random forest.
+    ExactTreeBuilder withFeatureSampler(FeatureSampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
+    TreeNode build() {
+        if (pool == null) {
+            return buildNode(0, samples.length, 0, 0);
+        }
+        return pool.invoke(new NodeTask(0, samples.length, 0, 0));
+    }
+
+    // Samples [from, to) with `start` draws before them; the sampler is keyed by draws, not samples.
+    private TreeNode buildNode(int from, int to, int start, int depth) {
+        int size = weight(from, to);
+        int positives = countPositives(from, to);
+
+        if (depth >= maxDepth || size < minSamplesSplit || isPure(from, to)) {
+            return TreeNode.leaf(positives, size);
+        }
+
+        Split split = findBestSplit(from, to, start, depth, size, positives);
+        if (split == null) {
+            return TreeNode.leaf(positives, size);
+        }
+
+        TreeNode node = new TreeNode();
+        node.splitFeatureIndex = split.featureIndex;
+        node.splitThreshold = split.threshold;
+
+        int mid = partition(from, to, split);
+        int rightStart = start + weight(from, mid);
+        if (pool != null && to - from >= SUBTREE_THRESHOLD) {
+            NodeTask left = new NodeTask(from, mid, start, depth + 1);
+            left.fork();
+            node.rightChild = buildNode(mid, to, rightStart, depth + 1);
+            node.leftChild = left.join();
+        } else {
+            node.leftChild = buildNode(from, mid, start, depth + 1);
+            node.rightChild = buildNode(mid, to, rightStart, depth + 1);
+        }
+        return node;
+    }
+
+    // Sweeps each feature in sorted order, moving one sample at a time from the right side
+    // to the left and updating class counts; every boundary between distinct values is a candidate.
+    private Split findBestSplit(int from, int to, int start, int depth, int size, int positives) {
+        int[] features = sampler == null ? allFeatures : sampler.sample(start, depth);
+        Split[] perFeature = new Split[allFeatures.length];
+        forEachFeature(pool, to - from, features, f -> perFeature[f] = bestSplitForFeature(f, from, to, size, positives));
+
+        Split best = null;
+        for (Split split : perFeature) {
+            if (split != null && (best == null || split.impurity < best.impurity)) {
+                best = split;
+            }
+        }
+        return best;
+    }
+
+    private Split bestSplitForFeature(int f, int from, int to, int size, int positives) {
+        double bestImpurity = Double.POSITIVE_INFINITY;
+        Split best = null;
+
+        double[] column = data.columns[f];
+        int[] order = nodeOrder(f, from, to);
+        int leftCount = 0;
+        int leftPositives = 0;
+
+        for (int p = 0; p < order.length - 1; p++) {
+            int sample = order[p];
+            leftCount += counts[sample];
+            if (data.labels[sample] == 1) {
+                leftPositives += counts[sample];
+            }
+            double value = column[sample];
+            double next = column[order[p + 1]];
+            if (Double.compare(value, next) == 0) continue; // Skip identical values
+
+            int rightCount = size - leftCount;
+            double leftWeight = (double) leftCount / size;
+            double rightWeight = (double) rightCount / size;
+            double gini = leftWeight * gini(leftPositives, leftCount)
+                    + rightWeight * gini(positives - leftPositives, rightCount);
+            if (gini < bestImpurity) {
+                bestImpurity = gini;
+                best = new Split(f, (value + next) / 2.0, gini);
+            }
+        }
+        return best;
+    }
+
+    // The node's samples in ascending order of feature f. Walking the shared order costs one pass over
+    // all samples and sorting costs m log m, so the walk is used once the node is large enough.
+    private int[] nodeOrder(int f, int from, int to) {
+        int m = to - from;
+        int[] order = new int[m];
+        if ((long) m * (32 - Integer.numberOfLeadingZeros(m)) >= data.numSamples()) {
+            int k = 0;
+            for (int sample : data.sorted[f]) {
+                if (owner[sample] == from) {
+                    order[k++] = sample;
+                }
+            }
+        } else {
+            System.arraycopy(samples, from, order, 0, m);
+            IndexSort.sortByValue(order, data.columns[f]);
+        }
+        return order;
+    }
+
+    // Runs the action for the given features, in parallel on the pool when the node is large enough.
+    private static void forEachFeature(ForkJoinPool pool, int size, int[] features, IntConsumer action) {
+        if (pool == null || size < FEATURE_THRESHOLD || features.length < 2) {
+            for (int f : features) {
+                action.accept(f);
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(features.length);
+        for (int f : features) {
+            tasks.add(ForkJoinTask.adapt(() -> action.accept(f)));
+        }
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+    }
+
+    // Stable partition of the range; returns the first position of the right child, whose samples are
+    // re-owned before either child runs.
+    private int partition(int from, int to, Split split) {
+        double[] column = data.columns[split.featureIndex];
+        int l = from;
+        int r = from;
+        for (int p = from; p < to; p++) {
+            int sample = samples[p];
+            if (column[sample] <= split.threshold) {
+                samples[l++] = sample;
+            } else {
+                buffer[r++] = sample;
+            }
+        }
+        System.arraycopy(buffer, from, samples, l, r - from);
+        for (int p = l; p < to; p++) {
+            owner[samples[p]] = l;
+        }
+        return l;
+    }
+
+    private int weight(int from, int to) {
+        int count = 0;
+        for (int p = from; p < to; p++) {
+            count += counts[samples[p]];
+        }
+        return count;
+    }
+
+    private int countPositives(int from, int to) {
+        int count = 0;
+        for (int p = from; p < to; p++) {
+            if (data.labels[samples[p]] == 1) {
+                count += counts[samples[p]];
+            }
+        }
+        return count;
+    }
+
+    private boolean isPure(int from, int to) {
+        if (to <= from) return true;
+        int firstLabel = data.labels[samples[from]];
+        for (int p = from + 1; p < to; p++) {
+            if (data.labels[samples[p]] != firstLabel) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double gini(int positives, int count) {
+        if (count == 0) return 0.0;
+        double p1 = (double) positives / count;
+        double p0 = 1.0 - p1;
+        return 1.0 - (p1 * p1 + p0 * p0);
+    }
+
+    // Forked and joined in one pool, never serialized
+    @SuppressWarnings("serial")
+    private class NodeTask extends RecursiveTask<TreeNode> {
+        private final int from;
+        private final int to;
+        private final int start;
+        private final int depth;
+
+        NodeTask(int from, int to, int start, int depth) {
+            this.from = from;
+            this.to = to;
+            this.start = start;
+            this.depth = depth;
+        }
+
+        @Override
+        protected TreeNode compute() {
+            return buildNode(from, to, start, depth);
+        }
+    }
+
+    private static class Split {
+        final int featureIndex;
+        final double threshold;
+        final double impurity;
+
+        Split(int featureIndex, double threshold, double impurity) {
+            this.featureIndex = featureIndex;
+            this.threshold = threshold;
+            this.impurity = impurity;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ml.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Draws the random subset of features a forest tree may split on at one node. The draw depends
+// only on the seed and the node's position (depth and first row of its range), so a tree built
+// with subtree tasks makes the same choices as a sequential build.
+class FeatureSampler {
+    private final int numFeatures;
+    private final int maxFeatures;
+    private final long seed;
+
+    FeatureSampler(int numFeatures, int maxFeatures, long seed) {
+        this.numFeatures = numFeatures;
+        this.maxFeatures = Math.min(Math.max(maxFeatures, 1), numFeatures);
+        this.seed = seed;
+    }
+
+    // Sorted ascending, so split ties still resolve to the lowest feature index.
+    int[] sample(int from, int depth) {
+        int[] features = new int[numFeatures];
+        for (int f = 0; f < numFeatures; f++) {
+            features[f] = f;
+        }
+        if (maxFeatures == numFeatures) {
+            return features;
+        }
+        SplittableRandom random = new SplittableRandom(seed + 0x9E3779B97F4A7C15L * (((long) depth << 32) | from));
+        for (int i = 0; i < maxFeatures; i++) {
+            int j = i + random.nextInt(numFeatures - i);
+            int tmp = features[i];
+            features[i] = features[j];
+            features[j] = tmp;
+        }
+        int[] subset = Arrays.copyOf(features, maxFeatures);
+        Arrays.sort(subset);
+        return subset;
+    }
+}
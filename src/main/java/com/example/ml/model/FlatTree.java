@@ -0,0 +1,214 @@
+package com.example.ml.model;
+
+import com.example.ml.data.FeatureMatrix;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// A trained tree as parallel primitive arrays in breadth-first order; node 0 is the root and
+// leaves have feature -1. Batch prediction moves a block of rows down one level at a time, so the
+// top of the tree stays in cache for the whole block. Siblings are adjacent in breadth-first order,
+// so a step is stepBase[node] + (value <= threshold ? 0 : 1); a leaf tests feature 0 against NaN,
+// which always adds 1, and has stepBase = itself - 1, so rows that reached a leaf stay there.
+public class FlatTree implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int BLOCK_SIZE = 32;
+
+    final int[] feature;
+    final double[] threshold;
+    final int[] left;
+    final int[] right;
+    final int[] leafValue;
+    final double[] leafProbability;
+    final int depth;
+    private final int[] stepFeature;
+    private final int[] stepBase;
+
+    private FlatTree(int[] feature, double[] threshold, int[] left, int[] right, int[] leafValue,
+                     double[] leafProbability, int depth) {
+        this.stepFeature = new int[feature.length];
+        this.stepBase = new int[feature.length];
+        for (int i = 0; i < feature.length; i++) {
+            stepFeature[i] = Math.max(feature[i], 0);
+            stepBase[i] = feature[i] >= 0 ? left[i] : i - 1;
+        }
+        this.feature = feature;
+        this.threshold = threshold;
+        this.left = left;
+        this.right = right;
+        this.leafValue = leafValue;
+        this.leafProbability = leafProbability;
+        this.depth = depth;
+    }
+
+    public static FlatTree compile(TreeNode root) {
+        int size = countNodes(root);
+        int[] feature = new int[size];
+        double[] threshold = new double[size];
+        int[] left = new int[size];
+        int[] right = new int[size];
+        int[] leafValue = new int[size];
+        double[] leafProbability = new double[size];
+        int[] nodeDepth = new int[size];
+        int depth = 0;
+
+        ArrayDeque<TreeNode> queue = new ArrayDeque<>();
+        queue.add(root);
+        int next = 1;
+        for (int i = 0; i < size; i++) {
+            TreeNode node = queue.poll();
+            depth = Math.max(depth, nodeDepth[i]);
+            if (node.isLeaf) {
+                feature[i] = -1;
+                threshold[i] = Double.NaN;
+                left[i] = i;
+                right[i] = i;
+                leafValue[i] = node.predictedLabel;
+                leafProbability[i] = node.positiveFraction;
+            } else {
+                feature[i] = node.splitFeatureIndex;
+                threshold[i] = node.splitThreshold;
+                leafProbability[i] = Double.NaN;
+                left[i] = next;
+                nodeDepth[next++] = nodeDepth[i] + 1;
+                right[i] = next;
+                nodeDepth[next++] = nodeDepth[i] + 1;
+                queue.add(node.leftChild);
+                queue.add(node.rightChild);
+            }
+        }
+        return new FlatTree(feature, threshold, left, right, leafValue, leafProbability, depth);
+    }
+
+    private static int countNodes(TreeNode root) {
+        int count = 0;
+        ArrayDeque<TreeNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            count++;
+            if (!node.isLeaf) {
+                stack.push(node.leftChild);
+                stack.push(node.rightChild);
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return feature.length;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int predict(double[] row) {
+        int node = 0;
+        int f;
+        while ((f = feature[node]) >= 0) {
+            node = row[f] <= threshold[node] ? left[node] : right[node];
+        }
+        return leafValue[node];
+    }
+
+    public int predict(FeatureMatrix matrix, int row) {
+        int node = 0;
+        int f;
+        while ((f = feature[node]) >= 0) {
+            node = matrix.get(row, f) <= threshold[node] ? left[node] : right[node];
+        }
+        return leafValue[node];
+    }
+
+    public void predict(double[][] rows, int[] out) {
+        int[] nodes = new int[BLOCK_SIZE];
+        for (int start = 0; start < rows.length; start += BLOCK_SIZE) {
+            int count = Math.min(BLOCK_SIZE, rows.length - start);
+            Arrays.fill(nodes, 0, count, 0);
+            boolean moved = true;
+            for (int level = 0; level < depth && moved; level++) {
+                moved = false;
+                for (int r = 0; r < count; r++) {
+                    int node = nodes[r];
+                    int next = stepBase[node] + (rows[start + r][stepFeature[node]] <= threshold[node] ? 0 : 1);
+                    moved |= next != node;
+                    nodes[r] = next;
+                }
+            }
+            for (int r = 0; r < count; r++) {
+                out[start + r] = leafValue[nodes[r]];
+            }
+        }
+    }
+
+    // Scores every row of the matrix into out.
+    public void predict(FeatureMatrix matrix, int[] out) {
+        route(matrix, out);
+        for (int r = 0; r < out.length; r++) {
+            out[r] = leafValue[out[r]];
+        }
+    }
+
+    // Share of label-1 training rows in the leaf each row of the matrix lands in.
+    public void probability(FeatureMatrix matrix, double[] out) {
+        int[] leaves = new int[matrix.numRows()];
+        route(matrix, leaves);
+        for (int r = 0; r < leaves.length; r++) {
+            out[r] = leafProbability[leaves[r]];
+        }
+    }
+
+    public double probability(double[] row) {
+        int node = 0;
+        int f;
+        while ((f = feature[node]) >= 0) {
+            node = row[f] <= threshold[node] ? left[node] : right[node];
+        }
+        return leafProbability[node];
+    }
+
+    // Leaf node index of every row, moving blocks of rows down one level at a time.
+    private void route(FeatureMatrix matrix, int[] leaves) {
+        int numRows = matrix.numRows();
+        for (int start = 0; start < numRows; start += BLOCK_SIZE) {
+            int end = Math.min(start + BLOCK_SIZE, numRows);
+            Arrays.fill(leaves, start, end, 0);
+            boolean moved = true;
+            for (int level = 0; level < depth && moved; level++) {
+                moved = false;
+                for (int r = start; r < end; r++) {
+                    int node = leaves[r];
+                    int next = stepBase[node] + (matrix.get(r, stepFeature[node]) <= threshold[node] ? 0 : 1);
+                    moved |= next != node;
+                    leaves[r] = next;
+                }
+            }
+        }
+    }
+
+    public int[] getFeatures() {
+        return feature;
+    }
+
+    public double[] getThresholds() {
+        return threshold;
+    }
+
+    public int[] getLeft() {
+        return left;
+    }
+
+    public int[] getRight() {
+        return right;
+    }
+
+    public int[] getLeafValues() {
+        return leafValue;
+    }
+
+    public double[] getLeafProbabilities() {
+        return leafProbability;
+    }
+}
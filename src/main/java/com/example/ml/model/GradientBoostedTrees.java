@@ -0,0 +1,280 @@
+package com.example.ml.model;
+
+import com.example.ml.data.BinnedMatrix;
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.data.IndexView;
+import com.example.ml.data.Instance;
+import com.example.ml.evaluation.*;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Gradient boosting with logistic loss. Each round fits a second-order regression tree to the
+// gradients of the current scores on a row subsample and a feature subsample, and adds it scaled by
+// the learning rate. Training data is quantized once; trees are grown with histograms on a pool of
+// `parallelism` threads. With a validation set, training stops after earlyStoppingRounds rounds
+// without a lower validation log-loss and keeps the best round. The result is one TreeEnsemble.
+public class GradientBoostedTrees<F extends Number, L extends Number> implements Model<F, L>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private TreeEnsemble ensemble;
+    private int maxRounds;
+    private double learningRate;
+    private int maxDepth;
+    private int minSamplesLeaf;
+    private double lambda;
+    private double subsample;
+    private double featureSubsample;
+    private int earlyStoppingRounds;
+    private int maxBins;
+    private int parallelism;
+    private long seed;
+    private List<Double> validationLosses;
+
+    public GradientBoostedTrees(int maxRounds, double learningRate, int maxDepth) {
+        this(maxRounds, learningRate, maxDepth, 20, 1.0, 0.8, 1.0, 10, BinnedMatrix.MAX_BINS,
+                Runtime.getRuntime().availableProcessors(), 42L);
+    }
+
+    public GradientBoostedTrees(int maxRounds, double learningRate, int maxDepth, int minSamplesLeaf, double lambda,
+                                double subsample, double featureSubsample, int earlyStoppingRounds, int maxBins,
+                                int parallelism, long seed) {
+        this.maxRounds = maxRounds;
+        this.learningRate = learningRate;
+        this.maxDepth = maxDepth;
+        this.minSamplesLeaf = minSamplesLeaf;
+        this.lambda = lambda;
+        this.subsample = subsample;
+        this.featureSubsample = featureSubsample;
+        this.earlyStoppingRounds = earlyStoppingRounds;
+        this.maxBins = maxBins;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.validationLosses = new ArrayList<>();
+    }
+
+    @Override
+    public void train(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet) {
+        BinnedMatrix binned = BinnedMatrix.quantize(IndexView.of(trainSet), maxBins);
+        int n = binned.numRows();
+        int numFeatures = binned.numFeatures();
+        double[] targets = new double[n];
+        double positives = 0.0;
+        for (int i = 0; i < n; i++) {
+            targets[i] = binned.getLabel(i) == 1 ? 1.0 : 0.0;
+            positives += targets[i];
+        }
+        double prior = Math.min(Math.max(positives / Math.max(n, 1), 1e-6), 1.0 - 1e-6);
+        double baseScore = Math.log(prior / (1.0 - prior));
+
+        // Without validation rows (null or empty) every round is kept
+        IndexView validation = validationSet == null || validationSet.isEmpty() ? null : IndexView.of(validationSet);
+        double[] validationScores = null;
+        double[] row = null;
+        if (validation != null) {
+            row = new double[numFeatures];
+            validationScores = new double[validation.numRows()];
+            Arrays.fill(validationScores, baseScore);
+        }
+
+        double[] scores = new double[n];
+        Arrays.fill(scores, baseScore);
+        double[] gradients = new double[n];
+        double[] hessians = new double[n];
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++) {
+            permutation[i] = i;
+        }
+        int sampleSize = Math.max(1, (int) Math.round(subsample * n));
+        int featuresPerTree = Math.max(1, (int) Math.round(featureSubsample * numFeatures));
+        Random random = new Random(seed);
+
+        List<RegressionTreeBuilder.Node> trees = new ArrayList<>();
+        validationLosses = new ArrayList<>();
+        double bestLoss = Double.POSITIVE_INFINITY;
+        int bestRounds = 0;
+
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (int round = 0; round < maxRounds; round++) {
+                for (int i = 0; i < n; i++) {
+                    double p = sigmoid(scores[i]);
+                    gradients[i] = p - targets[i];
+                    hessians[i] = Math.max(p * (1.0 - p), 1e-16);
+                }
+                int[] rows = sample(permutation, sampleSize, random);
+                int[] features = sample(featureIndices(numFeatures), featuresPerTree, random);
+
+                RegressionTreeBuilder.Node tree = new RegressionTreeBuilder(binned, gradients, hessians, rows, features,
+                        maxDepth, minSamplesLeaf, lambda, pool).build();
+                trees.add(tree);
+                for (int i = 0; i < n; i++) {
+                    scores[i] += learningRate * tree.predict(binned, i);
+                }
+
+                if (validation == null) {
+                    bestRounds = trees.size();
+                    continue;
+                }
+                double loss = 0.0;
+                for (int r = 0; r < validationScores.length; r++) {
+                    validation.copyRow(r, row);
+                    validationScores[r] += learningRate * predictRaw(tree, row);
+                    loss += logLoss(validationScores[r], validation.getLabel(r) == 1 ? 1.0 : 0.0);
+                }
+                loss /= validationScores.length;
+                validationLosses.add(loss);
+                if (loss < bestLoss) {
+                    bestLoss = loss;
+                    bestRounds = trees.size();
+                } else if (trees.size() - bestRounds >= earlyStoppingRounds) {
+                    break;
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        this.ensemble = TreeEnsemble.compile(baseScore, trees.subList(0, bestRounds), learningRate);
+        if (validation != null) {
+            evaluateAndStore(validationSet, "Validation");
+        }
+    }
+
+    // First k entries of a partial Fisher-Yates shuffle, sorted so rows are visited in memory order.
+    private static int[] sample(int[] indices, int k, Random random) {
+        if (k >= indices.length) {
+            return indices.clone();
+        }
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(indices.length - i);
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+        int[] sample = Arrays.copyOf(indices, k);
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    private static int[] featureIndices(int numFeatures) {
+        int[] features = new int[numFeatures];
+        for (int f = 0; f < numFeatures; f++) {
+            features[f] = f;
+        }
+        return features;
+    }
+
+    private static double predictRaw(RegressionTreeBuilder.Node node, double[] row) {
+        while (node.feature >= 0) {
+            node = row[node.feature] <= node.threshold ? node.left : node.right;
+        }
+        return node.value;
+    }
+
+    private static double sigmoid(double z) {
+        return 1.0 / (1.0 + Math.exp(-z));
+    }
+
+    // -log p(y) for logistic loss, written to stay finite for large |score|.
+    private static double logLoss(double score, double target) {
+        double margin = target == 1.0 ? score : -score;
+        return margin > 0 ? Math.log1p(Math.exp(-margin)) : -margin + Math.log1p(Math.exp(margin));
+    }
+
+    @Override
+    public EvaluationMetrics test(List<Instance<F, L>> testSet) {
+        List<L> predictions = getPredictions(testSet);
+        Accuracy<F, L> accuracy = new Accuracy<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Precision<F, L> precision = new Precision<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Recall<F, L> recall = new Recall<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        F1Score<F, L> f1Score = new F1Score<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+
+        double acc = accuracy.evaluate(testSet, predictions);
+        double prec = precision.evaluate(testSet, predictions);
+        double rec = recall.evaluate(testSet, predictions);
+        double f1 = f1Score.evaluate(testSet, predictions);
+
+        return new EvaluationMetrics(acc, prec, rec, f1);
+    }
+
+    public double predictProbability(Instance<F, L> instance) {
+        double[] row = new double[instance.getFeatureCount()];
+        for (int f = 0; f < row.length; f++) {
+            row[f] = instance.getFeatureValue(f);
+        }
+        return sigmoid(ensemble.score(row));
+    }
+
+    public int predictSingle(Instance<F, L> instance) {
+        return predictProbability(instance) >= 0.5 ? 1 : 0;
+    }
+
+    public double[] predictProbability(FeatureMatrix matrix) {
+        double[] out = new double[matrix.numRows()];
+        ensemble.score(matrix, out);
+        for (int r = 0; r < out.length; r++) {
+            out[r] = sigmoid(out[r]);
+        }
+        return out;
+    }
+
+    public int[] predict(FeatureMatrix matrix) {
+        double[] probabilities = predictProbability(matrix);
+        int[] out = new int[probabilities.length];
+        for (int r = 0; r < out.length; r++) {
+            out[r] = probabilities[r] >= 0.5 ? 1 : 0;
+        }
+        return out;
+    }
+
+    public List<L> getPredictions(List<Instance<F, L>> dataSet) {
+        int[] preds = predict(IndexView.of(dataSet));
+        return new AbstractList<L>() {
+            @Override
+            public L get(int index) {
+                return (L) Integer.valueOf(preds[index]);
+            }
+
+            @Override
+            public int size() {
+                return preds.length;
+            }
+        };
+    }
+
+    public TreeEnsemble getEnsemble() {
+        return ensemble;
+    }
+
+    // Validation log-loss after every round that was trained
+    public List<Double> getValidationLosses() {
+        return validationLosses;
+    }
+
+    private void evaluateAndStore(List<Instance<F, L>> dataset, String datasetName) {
+        List<L> predictions = getPredictions(dataset);
+        Accuracy<F, L> accuracy = new Accuracy<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Precision<F, L> precision = new Precision<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Recall<F, L> recall = new Recall<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        F1Score<F, L> f1Score = new F1Score<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+
+        double acc = accuracy.evaluate(dataset, predictions);
+        double prec = precision.evaluate(dataset, predictions);
+        double rec = recall.evaluate(dataset, predictions);
+        double f1 = f1Score.evaluate(dataset, predictions);
+
+        System.out.println(datasetName + " Metrics:");
+        System.out.println("Accuracy: " + String.format("%.4f", acc));
+        System.out.println("Precision: " + String.format("%.4f", prec));
+        System.out.println("Recall: " + String.format("%.4f", rec));
+        System.out.println("F1 Score: " + String.format("%.4f", f1));
+    }
+}
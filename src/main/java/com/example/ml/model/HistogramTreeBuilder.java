@@ -0,0 +1,261 @@
+package com.example.ml.model;
+
+import com.example.ml.data.BinnedMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+// Histogram split search over quantized features. A node's histogram holds, for every feature and
+// bin, the number of rows and of label-1 rows; split candidates are the bin edges (at most 255 per
+// feature). Only the smaller child is counted from its rows, the larger one is parent - smaller.
+// With a pool, large subtrees are forked and large nodes build and scan histograms per feature in
+// parallel; counts are integers and the per-feature bests are reduced in order, so the result is
+// the same tree as a sequential build.
+class HistogramTreeBuilder {
+    private static final int SUBTREE_THRESHOLD = 2048;
+    private static final int FEATURE_THRESHOLD = 32768;
+
+    private final int maxDepth;
+    private final int minSamplesSplit;
+    private final ForkJoinPool pool;
+
+    private final BinnedMatrix binned;
+    private final int[] labels;
+    private final int[] rows;
+    private final int[] offsets; // first histogram slot of each feature
+    private final int totalBins;
+    private final int[] allFeatures;
+    private FeatureSampler sampler;
+
+    HistogramTreeBuilder(BinnedMatrix binned, int[] rows, int maxDepth, int minSamplesSplit) {
+        this(binned, rows, maxDepth, minSamplesSplit, null);
+    }
+
+    HistogramTreeBuilder(BinnedMatrix binned, int[] rows, int maxDepth, int minSamplesSplit, ForkJoinPool pool) {
+        this.maxDepth = maxDepth;
+        this.minSamplesSplit = minSamplesSplit;
+        this.pool = pool;
+        this.binned = binned;
+        this.labels = binned.getLabels();
+        this.rows = rows.clone();
+
+        int numFeatures = binned.numFeatures();
+        this.offsets = new int[numFeatures + 1];
+        for (int f = 0; f < numFeatures; f++) {
+            offsets[f + 1] = offsets[f] + binned.numBins(f);
+        }
+        this.totalBins = offsets[numFeatures];
+        this.allFeatures = new int[numFeatures];
+        for (int f = 0; f < numFeatures; f++) {
+            allFeatures[f] = f;
+        }
+    }
+
+    // Restricts each node's split search to a random feature subset; histograms still cover every
+    // feature so that sibling subtraction stays valid.
+    HistogramTreeBuilder withFeatureSampler(FeatureSampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
+    TreeNode build() {
+        if (pool == null) {
+            return buildNode(0, rows.length, 0, histogram(0, rows.length));
+        }
+        return pool.invoke(new NodeTask(0, rows.length, 0, null));
+    }
+
+    // Slot 2 * (offsets[f] + bin) counts rows, the following slot counts label-1 rows.
+    private int[] histogram(int from, int to) {
+        int[] hist = new int[2 * totalBins];
+        forEachFeature(to - from, allFeatures, f -> {
+            byte[] column = binned.getColumn(f);
+            int base = 2 * offsets[f];
+            for (int p = from; p < to; p++) {
+                int row = rows[p];
+                int slot = base + 2 * (column[row] & 0xFF);
+                hist[slot]++;
+                if (labels[row] == 1) {
+                    hist[slot + 1]++;
+                }
+            }
+        });
+        return hist;
+    }
+
+    private TreeNode buildNode(int from, int to, int depth, int[] hist) {
+        int size = to - from;
+        int positives = countPositives(from, to);
+
+        if (depth >= maxDepth || size < minSamplesSplit || isPure(from, to)) {
+            return TreeNode.leaf(positives, size);
+        }
+
+        int[] features = sampler == null ? allFeatures : sampler.sample(from, depth);
+        int[] bins = new int[allFeatures.length];
+        double[] impurities = new double[allFeatures.length];
+        forEachFeature(size, features, f -> bestBin(f, hist, size, positives, bins, impurities));
+
+        int bestFeature = -1;
+        int bestBin = -1;
+        double bestImpurity = Double.POSITIVE_INFINITY;
+        for (int f : features) {
+            if (bins[f] >= 0 && impurities[f] < bestImpurity) {
+                bestImpurity = impurities[f];
+                bestFeature = f;
+                bestBin = bins[f];
+            }
+        }
+        if (bestFeature < 0) {
+            return TreeNode.leaf(positives, size);
+        }
+
+        TreeNode node = new TreeNode();
+        node.splitFeatureIndex = bestFeature;
+        node.splitThreshold = binned.getThreshold(bestFeature, bestBin);
+
+        int mid = partition(from, to, binned.getColumn(bestFeature), bestBin);
+        int[] leftHist;
+        int[] rightHist;
+        if (mid - from <= to - mid) {
+            leftHist = histogram(from, mid);
+            rightHist = subtract(hist, leftHist);
+        } else {
+            rightHist = histogram(mid, to);
+            leftHist = subtract(hist, rightHist);
+        }
+        if (pool != null && size >= SUBTREE_THRESHOLD) {
+            NodeTask left = new NodeTask(from, mid, depth + 1, leftHist);
+            left.fork();
+            node.rightChild = buildNode(mid, to, depth + 1, rightHist);
+            node.leftChild = left.join();
+        } else {
+            node.leftChild = buildNode(from, mid, depth + 1, leftHist);
+            node.rightChild = buildNode(mid, to, depth + 1, rightHist);
+        }
+        return node;
+    }
+
+    // Best bin edge of one feature, or bins[f] = -1 when no edge separates the node's rows.
+    private void bestBin(int f, int[] hist, int size, int positives, int[] bins, double[] impurities) {
+        int base = 2 * offsets[f];
+        int numBins = offsets[f + 1] - offsets[f];
+        int leftCount = 0;
+        int leftPositives = 0;
+        int bestBin = -1;
+        double bestImpurity = Double.POSITIVE_INFINITY;
+        for (int b = 0; b < numBins - 1; b++) {
+            leftCount += hist[base + 2 * b];
+            leftPositives += hist[base + 2 * b + 1];
+            int rightCount = size - leftCount;
+            if (leftCount == 0) continue;
+            if (rightCount == 0) break;
+
+            double leftWeight = (double) leftCount / size;
+            double rightWeight = (double) rightCount / size;
+            double gini = leftWeight * gini(leftPositives, leftCount)
+                    + rightWeight * gini(positives - leftPositives, rightCount);
+            if (gini < bestImpurity) {
+                bestImpurity = gini;
+                bestBin = b;
+            }
+        }
+        bins[f] = bestBin;
+        impurities[f] = bestImpurity;
+    }
+
+    // Runs the action for the given features, in parallel on the pool when the node is large enough.
+    private void forEachFeature(int size, int[] features, IntConsumer action) {
+        if (pool == null || size < FEATURE_THRESHOLD || features.length < 2) {
+            for (int f : features) {
+                action.accept(f);
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(features.length);
+        for (int f : features) {
+            tasks.add(ForkJoinTask.adapt(() -> action.accept(f)));
+        }
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+    }
+
+    // The parent histogram is no longer needed, so the larger child reuses its array.
+    private static int[] subtract(int[] parent, int[] child) {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] -= child[i];
+        }
+        return parent;
+    }
+
+    private int partition(int from, int to, byte[] column, int bin) {
+        int i = from;
+        int j = to - 1;
+        while (i <= j) {
+            if ((column[rows[i]] & 0xFF) <= bin) {
+                i++;
+            } else {
+                int tmp = rows[i];
+                rows[i] = rows[j];
+                rows[j--] = tmp;
+            }
+        }
+        return i;
+    }
+
+    private int countPositives(int from, int to) {
+        int count = 0;
+        for (int p = from; p < to; p++) {
+            if (labels[rows[p]] == 1) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isPure(int from, int to) {
+        if (to <= from) return true;
+        int firstLabel = labels[rows[from]];
+        for (int p = from + 1; p < to; p++) {
+            if (labels[rows[p]] != firstLabel) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Forked and joined in one pool, never serialized
+    @SuppressWarnings("serial")
+    private class NodeTask extends RecursiveTask<TreeNode> {
+        private final int from;
+        private final int to;
+        private final int depth;
+        private final int[] hist;
+
+        NodeTask(int from, int to, int depth, int[] hist) {
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.hist = hist;
+        }
+
+        @Override
+        protected TreeNode compute() {
+            return buildNode(from, to, depth, hist != null ? hist : histogram(from, to));
+        }
+    }
+
+    private static double gini(int positives, int count) {
+        if (count == 0) return 0.0;
+        double p1 = (double) positives / count;
+        double p0 = 1.0 - p1;
+        return 1.0 - (p1 * p1 + p0 * p0);
+    }
+}
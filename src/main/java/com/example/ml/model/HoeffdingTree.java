@@ -0,0 +1,393 @@
+package com.example.ml.model;
+
+import com.example.ml.data.BlockSource;
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.data.IndexView;
+import com.example.ml.data.Instance;
+import com.example.ml.data.RowBlock;
+import com.example.ml.evaluation.*;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+// Incremental decision tree (Hoeffding tree / VFDT, Domingos & Hulten 2000) for binary labels.
+// Every leaf keeps per-class count, mean, variance, min and max of each feature. After every
+// gracePeriod rows a leaf estimates the information gain of numSplitPoints thresholds per feature from
+// those Gaussians and splits when the best feature beats the runner-up by more than the Hoeffding
+// bound sqrt(ln(1 / delta) / 2n) (entropy range is 1 bit for two classes), or when the bound has
+// shrunk below tieThreshold. Inner nodes drop their statistics, and so do leaves that can no longer
+// split (at maxDepth, or once the tree has maxLeaves leaves), so memory is bounded by maxLeaves sets
+// of statistics; learning works one row or mini-batch at a time.
+public class HoeffdingTree<F extends Number, L extends Number> implements IncrementalModel<F, L>, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_MAX_LEAVES = 1 << 14;
+
+    private Node root;
+    private int numFeatures = -1;
+    private int gracePeriod;
+    private double delta;
+    private double tieThreshold;
+    private int maxDepth;
+    private int numSplitPoints;
+    private int maxLeaves;
+    private int leafCount;
+    private long rowsSeen;
+
+    public HoeffdingTree() {
+        this(200, 1e-7, 0.05, 20, 10);
+    }
+
+    public HoeffdingTree(int gracePeriod, double delta, double tieThreshold, int maxDepth, int numSplitPoints) {
+        this(gracePeriod, delta, tieThreshold, maxDepth, numSplitPoints, DEFAULT_MAX_LEAVES);
+    }
+
+    public HoeffdingTree(int gracePeriod, double delta, double tieThreshold, int maxDepth, int numSplitPoints,
+                         int maxLeaves) {
+        this.gracePeriod = gracePeriod;
+        this.delta = delta;
+        this.tieThreshold = tieThreshold;
+        this.maxDepth = maxDepth;
+        this.numSplitPoints = numSplitPoints;
+        this.maxLeaves = maxLeaves;
+    }
+
+    // Single pass over the training list, one row at a time.
+    @Override
+    public void train(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet) {
+        partialFit(trainSet);
+        evaluateAndStore(validationSet, "Validation");
+    }
+
+    // Single pass over a streamed source; memory is bounded by the block size and the tree.
+    public void train(BlockSource trainSource, List<Instance<F, L>> validationSet) {
+        RowBlock block = new RowBlock(trainSource.blockSize(), trainSource.numFeatures());
+        double[] row = new double[trainSource.numFeatures()];
+        try (BlockSource.BlockReader reader = trainSource.open()) {
+            while (reader.next(block)) {
+                for (int r = 0; r < block.numRows(); r++) {
+                    block.copyRow(r, row);
+                    update(row, block.getLabel(r));
+                }
+            }
+        }
+        evaluateAndStore(validationSet, "Validation");
+    }
+
+    @Override
+    public void partialFit(List<Instance<F, L>> batch) {
+        double[] row = null;
+        for (Instance<F, L> instance : batch) {
+            if (row == null) {
+                row = new double[instance.getFeatureCount()];
+            }
+            for (int f = 0; f < row.length; f++) {
+                row[f] = instance.getFeatureValue(f);
+            }
+            update(row, instance.getLabel().intValue());
+        }
+    }
+
+    public void update(double[] row, int label) {
+        if (root == null) {
+            numFeatures = row.length;
+            root = new Node(0, maxDepth > 0 ? numFeatures : 0);
+            leafCount = 1;
+        }
+        rowsSeen++;
+        Node leaf = sortToLeaf(row);
+        int c = label == 1 ? 1 : 0;
+        leaf.learn(row, c);
+        if (leaf.count == null) {
+            return;
+        }
+        if (leafCount >= maxLeaves) {
+            // Full tree: this leaf can never split, so its statistics are dead weight
+            leaf.deactivate();
+            return;
+        }
+        if (leaf.seenSinceCheck >= gracePeriod) {
+            leaf.seenSinceCheck = 0;
+            attemptSplit(leaf);
+        }
+    }
+
+    private Node sortToLeaf(double[] row) {
+        Node node = root;
+        while (node.feature >= 0) {
+            node = row[node.feature] <= node.threshold ? node.left : node.right;
+        }
+        return node;
+    }
+
+    // Gains are computed over the rows this leaf observed, not the counts it inherited at creation.
+    private void attemptSplit(Node leaf) {
+        if (numFeatures == 0) {
+            return;
+        }
+        double negatives = leaf.count[0];
+        double positives = leaf.count[numFeatures];
+        if (negatives == 0 || positives == 0) {
+            return;
+        }
+        double parentEntropy = entropy(negatives, positives);
+        double best = 0.0;
+        double second = 0.0;
+        int bestFeature = -1;
+        double bestThreshold = 0.0;
+        double[] bestLeft = new double[2];
+        double[] left = new double[2];
+
+        for (int f = 0; f < numFeatures; f++) {
+            double low = Math.min(leaf.min[f], leaf.min[numFeatures + f]);
+            double high = Math.max(leaf.max[f], leaf.max[numFeatures + f]);
+            if (!(high > low)) continue;
+
+            double featureBest = 0.0;
+            double featureThreshold = 0.0;
+            double[] featureLeft = new double[2];
+            for (int s = 1; s <= numSplitPoints; s++) {
+                double threshold = low + (high - low) * s / (numSplitPoints + 1);
+                leaf.estimateLeft(f, threshold, left);
+                double leftTotal = left[0] + left[1];
+                double rightTotal = negatives + positives - leftTotal;
+                double total = leftTotal + rightTotal;
+                double gain = parentEntropy
+                        - leftTotal / total * entropy(left[0], left[1])
+                        - rightTotal / total * entropy(negatives - left[0], positives - left[1]);
+                if (gain > featureBest) {
+                    featureBest = gain;
+                    featureThreshold = threshold;
+                    featureLeft[0] = left[0];
+                    featureLeft[1] = left[1];
+                }
+            }
+            if (featureBest > best) {
+                second = best;
+                best = featureBest;
+                bestFeature = f;
+                bestThreshold = featureThreshold;
+                bestLeft[0] = featureLeft[0];
+                bestLeft[1] = featureLeft[1];
+            } else if (featureBest > second) {
+                second = featureBest;
+            }
+        }
+        if (bestFeature < 0) {
+            return;
+        }
+
+        double n = negatives + positives;
+        double bound = Math.sqrt(Math.log(1.0 / delta) / (2.0 * n));
+        if (best - second > bound || bound < tieThreshold) {
+            // Children at maxDepth never split, so they keep class counts only
+            leaf.split(bestFeature, bestThreshold, bestLeft, leaf.depth + 1 < maxDepth ? numFeatures : 0);
+            leafCount++;
+        }
+    }
+
+    private static double entropy(double negatives, double positives) {
+        double total = negatives + positives;
+        if (total <= 0) return 0.0;
+        double h = 0.0;
+        if (negatives > 0) {
+            double p = negatives / total;
+            h -= p * Math.log(p);
+        }
+        if (positives > 0) {
+            double p = positives / total;
+            h -= p * Math.log(p);
+        }
+        return h / Math.log(2);
+    }
+
+    @Override
+    public EvaluationMetrics test(List<Instance<F, L>> testSet) {
+        List<L> predictions = getPredictions(testSet);
+        Accuracy<F, L> accuracy = new Accuracy<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Precision<F, L> precision = new Precision<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Recall<F, L> recall = new Recall<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        F1Score<F, L> f1Score = new F1Score<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+
+        double acc = accuracy.evaluate(testSet, predictions);
+        double prec = precision.evaluate(testSet, predictions);
+        double rec = recall.evaluate(testSet, predictions);
+        double f1 = f1Score.evaluate(testSet, predictions);
+
+        return new EvaluationMetrics(acc, prec, rec, f1);
+    }
+
+    public int predict(double[] row) {
+        if (root == null) {
+            return 0;
+        }
+        return sortToLeaf(row).majorityLabel();
+    }
+
+    public int predictSingle(Instance<F, L> instance) {
+        double[] row = new double[instance.getFeatureCount()];
+        for (int f = 0; f < row.length; f++) {
+            row[f] = instance.getFeatureValue(f);
+        }
+        return predict(row);
+    }
+
+    public int[] predict(FeatureMatrix matrix) {
+        int[] out = new int[matrix.numRows()];
+        double[] row = new double[matrix.numFeatures()];
+        for (int r = 0; r < out.length; r++) {
+            matrix.copyRow(r, row);
+            out[r] = predict(row);
+        }
+        return out;
+    }
+
+    public List<L> getPredictions(List<Instance<F, L>> dataSet) {
+        int[] preds = predict(IndexView.of(dataSet));
+        return new AbstractList<L>() {
+            @Override
+            public L get(int index) {
+                return (L) Integer.valueOf(preds[index]);
+            }
+
+            @Override
+            public int size() {
+                return preds.length;
+            }
+        };
+    }
+
+    public int getLeafCount() {
+        return leafCount;
+    }
+
+    public long getRowsSeen() {
+        return rowsSeen;
+    }
+
+    private void evaluateAndStore(List<Instance<F, L>> dataset, String datasetName) {
+        if (dataset.isEmpty()) {
+            return;
+        }
+        List<L> predictions = getPredictions(dataset);
+        Accuracy<F, L> accuracy = new Accuracy<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Precision<F, L> precision = new Precision<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Recall<F, L> recall = new Recall<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        F1Score<F, L> f1Score = new F1Score<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+
+        double acc = accuracy.evaluate(dataset, predictions);
+        double prec = precision.evaluate(dataset, predictions);
+        double rec = recall.evaluate(dataset, predictions);
+        double f1 = f1Score.evaluate(dataset, predictions);
+
+        System.out.println(datasetName + " Metrics:");
+        System.out.println("Accuracy: " + String.format("%.4f", acc));
+        System.out.println("Precision: " + String.format("%.4f", prec));
+        System.out.println("Recall: " + String.format("%.4f", rec));
+        System.out.println("F1 Score: " + String.format("%.4f", f1));
+    }
+
+    // Leaf statistics are indexed [class * numFeatures + feature]; leaves that cannot split have none.
+    private static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        int feature = -1;
+        double threshold;
+        Node left;
+        Node right;
+        final int depth;
+
+        double[] classCounts = new double[2];
+        double[] count;
+        double[] mean;
+        double[] m2;
+        double[] min;
+        double[] max;
+        int seenSinceCheck;
+
+        Node(int depth, int numFeatures) {
+            this.depth = depth;
+            if (numFeatures == 0) {
+                return;
+            }
+            this.count = new double[2 * numFeatures];
+            this.mean = new double[2 * numFeatures];
+            this.m2 = new double[2 * numFeatures];
+            this.min = new double[2 * numFeatures];
+            this.max = new double[2 * numFeatures];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        void learn(double[] row, int c) {
+            classCounts[c]++;
+            if (count == null) {
+                return;
+            }
+            seenSinceCheck++;
+            int base = c * row.length;
+            for (int f = 0; f < row.length; f++) {
+                double value = row[f];
+                int i = base + f;
+                count[i]++;
+                double d = value - mean[i];
+                mean[i] += d / count[i];
+                m2[i] += d * (value - mean[i]);
+                if (value < min[i]) min[i] = value;
+                if (value > max[i]) max[i] = value;
+            }
+        }
+
+        // Expected class counts with value <= threshold, from each class's normal approximation.
+        void estimateLeft(int f, double threshold, double[] out) {
+            int numFeatures = count.length / 2;
+            for (int c = 0; c < 2; c++) {
+                int i = c * numFeatures + f;
+                double n = count[i];
+                if (n == 0) {
+                    out[c] = 0.0;
+                } else if (threshold < min[i]) {
+                    out[c] = 0.0;
+                } else if (threshold >= max[i]) {
+                    out[c] = n;
+                } else {
+                    double std = Math.sqrt(m2[i] / n);
+                    out[c] = std > 0 ? n * normalCdf((threshold - mean[i]) / std) : (mean[i] <= threshold ? n : 0.0);
+                }
+            }
+        }
+
+        // Children start with the estimated class counts so they can predict before seeing rows;
+        // childFeatures is 0 for children that will never split.
+        void split(int feature, double threshold, double[] leftCounts, int childFeatures) {
+            int numFeatures = count.length / 2;
+            this.feature = feature;
+            this.threshold = threshold;
+            this.left = new Node(depth + 1, childFeatures);
+            this.right = new Node(depth + 1, childFeatures);
+            left.classCounts[0] = leftCounts[0];
+            left.classCounts[1] = leftCounts[1];
+            right.classCounts[0] = Math.max(count[0] - leftCounts[0], 0.0);
+            right.classCounts[1] = Math.max(count[numFeatures] - leftCounts[1], 0.0);
+            deactivate();
+        }
+
+        void deactivate() {
+            count = mean = m2 = min = max = null;
+        }
+
+        int majorityLabel() {
+            return classCounts[1] >= classCounts[0] ? 1 : 0;
+        }
+    }
+
+    // Abramowitz & Stegun 7.1.26; absolute error below 1.5e-7.
+    private static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2.0);
+        double t = 1.0 / (1.0 + 0.3275911 * x);
+        double erf = 1.0 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t
+                + 0.254829592) * t * Math.exp(-x * x);
+        return z >= 0 ? 0.5 * (1.0 + erf) : 0.5 * (1.0 - erf);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.ml.model;
+
+import com.example.ml.data.Instance;
+import java.util.List;
+
+// A model that can keep learning from new batches without retraining from scratch.
+public interface IncrementalModel<F extends Number, L extends Number> extends Model<F, L> {
+    void partialFit(List<Instance<F, L>> batch);
+}
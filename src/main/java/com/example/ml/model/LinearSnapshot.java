@@ -0,0 +1,72 @@
+package com.example.ml.model;
+
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.utils.Kernels;
+
+import java.io.Serializable;
+
+// Immutable copy of a linear model's weights, taken between partialFit calls. Scoring threads read
+// a snapshot while training keeps updating the model, so they never see a half-applied batch.
+public final class LinearSnapshot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final double[] weights;
+    private final double bias;
+    private final boolean logistic;
+    private final long updates;
+
+    LinearSnapshot(double[] weights, double bias, boolean logistic, long updates) {
+        this.weights = weights.clone();
+        this.bias = bias;
+        this.logistic = logistic;
+        this.updates = updates;
+    }
+
+    public double margin(double[] row) {
+        return Kernels.DEFAULT.dot(row, weights) + bias;
+    }
+
+    public double margin(FeatureMatrix data, int row) {
+        double output = bias;
+        if (data.isSparse()) {
+            for (int k = 0; k < data.nonZeroCount(row); k++) {
+                output += data.nonZeroValue(row, k) * weights[data.nonZeroIndex(row, k)];
+            }
+        } else {
+            output += data.dot(row, weights);
+        }
+        return output;
+    }
+
+    // Probability of label 1 for logistic regression, the raw margin for the perceptron.
+    public double score(double[] row) {
+        double z = margin(row);
+        return logistic ? 1.0 / (1 + Math.exp(-z)) : z;
+    }
+
+    // 1 / 0 for logistic regression and 1 / -1 for the perceptron, as the models predict.
+    public int predict(double[] row) {
+        return margin(row) >= 0 ? 1 : (logistic ? 0 : -1);
+    }
+
+    public int predict(FeatureMatrix data, int row) {
+        return margin(data, row) >= 0 ? 1 : (logistic ? 0 : -1);
+    }
+
+    public double getBias() {
+        return bias;
+    }
+
+    public double getWeight(int feature) {
+        return weights[feature];
+    }
+
+    public int numFeatures() {
+        return weights.length;
+    }
+
+    // Training rows the model had seen through partialFit when the snapshot was taken.
+    public long getUpdates() {
+        return updates;
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.ml.model;
 
+import com.example.ml.data.BlockSource;
+import com.example.ml.data.FeatureMatrix;
 import com.example.ml.data.Instance;
+import com.example.ml.data.RowBlock;
 import com.example.ml.evaluation.*;
+import com.example.ml.optim.DifferentiableFunction;
+import com.example.ml.optim.Minimizer;
+import com.example.ml.optim.Optimizer;
+import com.example.ml.optim.SparseOptimizer;
+import com.example.ml.utils.Kernels;
 import org.knowm.xchart.SwingWrapper;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
@@ -9,8 +17,10 @@ import org.knowm.xchart.XYChartBuilder;
 import java.io.Serializable;
 import java.util.*;
 
-public class LogisticRegression<F extends Number, L extends Number> implements Model<F, L>, Serializable {
+public class LogisticRegression<F extends Number, L extends Number> implements IncrementalModel<F, L>, Serializable {
     private static final long serialVersionUID = 1L;
+    private static final int SCORE_BLOCK = 256;
+    private static final int GRADIENT_CHUNK = 1024;
 
     double[] weights;
     double[] checkpointWeights;
@@ -20,8 +30,44 @@ public class LogisticRegression<F extends Number, L extends Number> implements M
     int maxEpochs;
     int batchSize;
     double bestAccuracy;
+    SgdMode sgdMode;
+    int parallelism;
+    // Updates go through this when set; sparse batches step only the features they touch
+    Optimizer optimizer;
+    // When set, training minimizes the full-batch objective instead of running SGD
+    transient Minimizer minimizer;
+    double l2;
+    // When set, training is per-example with lazily regularized updates, ignoring batchSize
+    SparseOptimizer sparseOptimizer;
+
+    // Sequential sparse batches accumulate here and only touch the features they contain
+    private transient SparseBuffers sparseBuffers;
+
+    // Dense batches are copied row-major into batchRows so one gemv scores the whole batch
+    private transient double[] batchRows;
+    private transient double[] batchScores;
+
+    // Rows seen through partialFit, and the sequential workspace it reuses across calls
+    long updates;
+    private transient SgdWorkers streamWorkers;
 
     public LogisticRegression(int inputSize, double learningRate, int maxEpochs, int batchSize) {
+        this(inputSize, learningRate, maxEpochs, batchSize, SgdMode.SEQUENTIAL, 1);
+    }
+
+    // learningRate is the schedule's first rate; the optimizer takes every step.
+    public LogisticRegression(int inputSize, Optimizer optimizer, int maxEpochs, int batchSize,
+                              SgdMode sgdMode, int parallelism) {
+        this(inputSize, optimizer.getSchedule().rate(1), maxEpochs, batchSize, sgdMode, parallelism);
+        if (sgdMode == SgdMode.HOGWILD && !optimizer.isStateless()) {
+            throw new IllegalArgumentException(optimizer.getClass().getSimpleName()
+                    + " keeps per-weight state that Hogwild workers would race on; use Sgd or another SgdMode");
+        }
+        this.optimizer = optimizer;
+    }
+
+    public LogisticRegression(int inputSize, double learningRate, int maxEpochs, int batchSize,
+                              SgdMode sgdMode, int parallelism) {
         this.weights = new double[inputSize];
         this.checkpointWeights = new double[inputSize];
         Random rand = new Random(42);
@@ -34,53 +80,338 @@ public class LogisticRegression<F extends Number, L extends Number> implements M
         this.maxEpochs = maxEpochs;
         this.batchSize = batchSize;
         this.bestAccuracy = 0.0;
+        this.sgdMode = sgdMode;
+        this.parallelism = parallelism;
+    }
+
+    // Full-batch training: minimizes mean log-loss + l2 / 2 * |w|^2 (bias not penalized) for at most
+    // maxIterations iterations, stopping early once the minimizer converges. Every objective
+    // evaluation is spread over `parallelism` threads in chunks of rows.
+    public LogisticRegression(int inputSize, Minimizer minimizer, double l2, int maxIterations, int parallelism) {
+        this(inputSize, 0.0, maxIterations, GRADIENT_CHUNK, SgdMode.SEQUENTIAL, parallelism);
+        this.minimizer = minimizer;
+        this.l2 = l2;
+    }
+
+    // Regularized training whose per-row cost depends only on the row's non-zeros, e.g. LazySgd or Ftrl.
+    // Weights start at zero so features the penalty keeps out of the model stay exactly zero.
+    public LogisticRegression(int inputSize, SparseOptimizer sparseOptimizer, int maxEpochs) {
+        this(inputSize, 0.0, maxEpochs, 1, SgdMode.SEQUENTIAL, 1);
+        this.sparseOptimizer = sparseOptimizer;
     }
 
     public double sigmoid(double z) {
         return 1.0 / (1 + Math.exp(-z));
     }
 
+    // Sparse batches take the touched-features path, sharded over threads in HOGWILD mode.
     @Override
     public void train(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet) {
         List<Double> validationAccuracies = new ArrayList<>();
         List<Double> losses = new ArrayList<>();
 
-        for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
-            Collections.shuffle(trainSet);
+        if (minimizer != null) {
+            try (SgdWorkers workers = new SgdWorkers(parallelism, weights.length, GRADIENT_CHUNK)) {
+                minimize((x, gradient) -> {
+                    setParameters(x);
+                    Arrays.fill(gradient, 0.0);
+                    SgdWorkers.Workspace total = workers.fullBatch(trainSet.size(), (ws, from, to) -> {
+                        ws.load(trainSet, from, to);
+                        return lossGradient(ws, to - from);
+                    });
+                    addSums(total, gradient);
+                    return objective(gradient, total.loss, trainSet.size());
+                }, validationSet, validationAccuracies, losses);
+            }
+            plot(validationAccuracies, "Validation Accuracies over iterations", "ValidationAccuracy");
+            plot(losses, "Loss over iterations", "Loss");
+            return;
+        }
 
-            for(int i = 0; i < trainSet.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, trainSet.size());
-                List<Instance<F, L>> batch = trainSet.subList(i, end);
+        if (sparseOptimizer != null) {
+            startRegularized();
+            for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
+                Collections.shuffle(trainSet);
+                for (Instance<F, L> instance : trainSet) {
+                    updateRegularized(instance);
+                }
+                sparseOptimizer.finish(weights);
+                validate(validationSet, validationAccuracies, epoch);
+                losses.add(computeLoss(validationSet));
+                System.out.println("Loss: " + computeLoss(validationSet));
+            }
+            System.out.println("Non-zero weights: " + nonZeroWeights() + " of " + weights.length);
+            plot(validationAccuracies, "Validation Accuracies over epochs", "ValidationAccuracy");
+            plot(losses, "Loss over epochs", "Loss");
+            return;
+        }
 
-                double[] weightsUpdate = new double[weights.length];
-                double biasUpdate = 0.0;
+        if (optimizer != null) {
+            optimizer.init(weights.length);
+        }
+        SgdWorkers.Gradient batchGradient = (ws, from, to) -> gradient(ws, trainSet, from, to);
+        SgdWorkers.SparseBatch sparseBatch = (buffers, from, to) -> updateSparse(trainSet.subList(from, to), buffers);
+        try (SgdWorkers workers = new SgdWorkers(sgdMode, parallelism, weights.length, batchSize)) {
+            for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
+                Collections.shuffle(trainSet);
+                boolean sparse = !trainSet.isEmpty() && trainSet.get(0).isSparse();
 
-                for(Instance<F, L> instance : batch) {
-                    List<F> features = instance.getFeatures();
-                    double label = instance.getLabel().doubleValue();
-                    double prediction = predict(instance);
-                    double error = prediction - label;
-                    for(int w = 0; w < weightsUpdate.length; w++) {
-                        weightsUpdate[w] += error * features.get(w).doubleValue();
+                if (workers.isHogwild() && sparse) {
+                    workers.hogwild(trainSet.size(), batchSize, sparseBatch);
+                } else if (workers.isHogwild()) {
+                    workers.hogwild(trainSet.size(), batchSize, batchGradient,
+                            this::applyGradient);
+                } else {
+                    for(int i = 0; i < trainSet.size(); i += batchSize) {
+                        int end = Math.min(i + batchSize, trainSet.size());
+                        if (sparse) {
+                            updateSparse(trainSet.subList(i, end));
+                            continue;
+                        }
+                        SgdWorkers.Workspace total = workers.synchronous(i, end, batchGradient);
+                        applyGradient(total.gradient, total.biasGradient, end - i);
                     }
-                    biasUpdate += error;
                 }
-                int batchCount = end - i;
-                for (int w = 0; w < weights.length; w++) {
-                    weightsUpdate[w] /= batchCount;
+                validate(validationSet, validationAccuracies, epoch);
+                losses.add(computeLoss(validationSet));
+                System.out.println("Loss: " + computeLoss(validationSet));
+            }
+        }
+        plot(validationAccuracies, "Validation Accuracies over epochs", "ValidationAccuracy");
+        plot(losses, "Loss over epochs", "Loss");
+    }
+
+    // One pass over a micro-batch in batchSize steps, continuing from the current weights and
+    // optimizer state. Always sequential so no worker threads outlive the call.
+    @Override
+    public synchronized void partialFit(List<Instance<F, L>> batch) {
+        if (minimizer != null) {
+            throw new IllegalStateException("partialFit needs an SGD model; full-batch models are trained with train");
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (sparseOptimizer != null) {
+            if (sparseOptimizer.getSteps() == 0) {
+                startRegularized();
+            }
+            for (Instance<F, L> instance : batch) {
+                updateRegularized(instance);
+            }
+            // O(weights) once per call so the weights are current between calls
+            sparseOptimizer.finish(weights);
+            updates += batch.size();
+            return;
+        }
+        if (optimizer != null && optimizer.getSteps() == 0) {
+            optimizer.init(weights.length);
+        }
+        boolean sparse = batch.get(0).isSparse();
+        if (!sparse && streamWorkers == null) {
+            streamWorkers = new SgdWorkers(SgdMode.SEQUENTIAL, 1, weights.length, batchSize);
+        }
+        SgdWorkers.Gradient batchGradient = (ws, from, to) -> gradient(ws, batch, from, to);
+        for(int i = 0; i < batch.size(); i += batchSize) {
+            int end = Math.min(i + batchSize, batch.size());
+            if (sparse) {
+                updateSparse(batch.subList(i, end));
+                continue;
+            }
+            SgdWorkers.Workspace total = streamWorkers.synchronous(i, end, batchGradient);
+            applyGradient(total.gradient, total.biasGradient, end - i);
+        }
+        updates += batch.size();
+    }
+
+    // Consistent copy of the current weights for scoring on other threads.
+    public synchronized LinearSnapshot snapshot() {
+        return new LinearSnapshot(weights, bias, true, updates);
+    }
+
+    // Out-of-core training: each epoch re-reads the source one block at a time and
+    // shuffles rows within the block, so memory is bounded by the block size.
+    public void train(BlockSource trainSource, List<Instance<F, L>> validationSet) {
+        if (trainSource.numFeatures() != weights.length) {
+            throw new IllegalArgumentException("Source has " + trainSource.numFeatures()
+                    + " features but the model has " + weights.length);
+        }
+        List<Double> validationAccuracies = new ArrayList<>();
+        List<Double> losses = new ArrayList<>();
+        RowBlock block = new RowBlock(trainSource.blockSize(), weights.length);
+        Random rand = new Random(42);
+
+        // Full-batch: every objective evaluation is one pass over the source
+        if (minimizer != null) {
+            try (SgdWorkers workers = new SgdWorkers(parallelism, weights.length, GRADIENT_CHUNK)) {
+                minimize((x, gradient) -> {
+                    setParameters(x);
+                    Arrays.fill(gradient, 0.0);
+                    double loss = 0.0;
+                    long rows = 0;
+                    try (BlockSource.BlockReader reader = trainSource.open()) {
+                        while (reader.next(block)) {
+                            SgdWorkers.Workspace total = workers.fullBatch(block.numRows(), (ws, from, to) -> {
+                                ws.load(block, from, to);
+                                return lossGradient(ws, to - from);
+                            });
+                            addSums(total, gradient);
+                            loss += total.loss;
+                            rows += block.numRows();
+                        }
+                    }
+                    return objective(gradient, loss, rows);
+                }, validationSet, validationAccuracies, losses);
+            }
+            plot(validationAccuracies, "Validation Accuracies over iterations", "ValidationAccuracy");
+            plot(losses, "Loss over iterations", "Loss");
+            return;
+        }
+
+        if (sparseOptimizer != null) {
+            startRegularized();
+            for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
+                try (BlockSource.BlockReader reader = trainSource.open()) {
+                    while (reader.next(block)) {
+                        block.shuffle(rand);
+                        for (Instance<F, L> instance : block.<F, L>asInstances()) {
+                            updateRegularized(instance);
+                        }
+                    }
                 }
-                biasUpdate /= batchCount;
+                sparseOptimizer.finish(weights);
+                validate(validationSet, validationAccuracies, epoch);
+                double loss = computeLoss(validationSet);
+                losses.add(loss);
+                System.out.println("Loss: " + loss);
+            }
+            System.out.println("Non-zero weights: " + nonZeroWeights() + " of " + weights.length);
+            plot(validationAccuracies, "Validation Accuracies over epochs", "ValidationAccuracy");
+            plot(losses, "Loss over epochs", "Loss");
+            return;
+        }
 
-                updateWeights(weightsUpdate, biasUpdate);
+        if (optimizer != null) {
+            optimizer.init(weights.length);
+        }
+        try (SgdWorkers workers = new SgdWorkers(sgdMode, parallelism, weights.length, batchSize)) {
+            for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
+                try (BlockSource.BlockReader reader = trainSource.open()) {
+                    while (reader.next(block)) {
+                        block.shuffle(rand);
+                        trainOnBlock(block, workers);
+                    }
+                }
+                validate(validationSet, validationAccuracies, epoch);
+                double loss = computeLoss(validationSet);
+                losses.add(loss);
+                System.out.println("Loss: " + loss);
             }
-            validate(validationSet, validationAccuracies, epoch);
-            losses.add(computeLoss(validationSet));
-            System.out.println("Loss: " + computeLoss(validationSet));
         }
         plot(validationAccuracies, "Validation Accuracies over epochs", "ValidationAccuracy");
         plot(losses, "Loss over epochs", "Loss");
     }
 
+    private void trainOnBlock(RowBlock block, SgdWorkers workers) {
+        SgdWorkers.Gradient batchGradient = (ws, from, to) -> gradient(ws, block, from, to);
+        if (workers.isHogwild()) {
+            workers.hogwild(block.numRows(), batchSize, batchGradient,
+                    this::applyGradient);
+            return;
+        }
+        for(int i = 0; i < block.numRows(); i += batchSize) {
+            int end = Math.min(i + batchSize, block.numRows());
+            SgdWorkers.Workspace total = workers.synchronous(i, end, batchGradient);
+            applyGradient(total.gradient, total.biasGradient, end - i);
+        }
+    }
+
+    private double gradient(SgdWorkers.Workspace ws, List<Instance<F, L>> rows, int from, int to) {
+        ws.load(rows, from, to);
+        return gradient(ws, to - from);
+    }
+
+    private double gradient(SgdWorkers.Workspace ws, RowBlock block, int from, int to) {
+        ws.load(block, from, to);
+        return gradient(ws, to - from);
+    }
+
+    // Sum over the loaded rows of (sigmoid(w . x + b) - y) * x, added to ws.gradient.
+    private double gradient(SgdWorkers.Workspace ws, int count) {
+        Kernels.DEFAULT.gemv(ws.source, ws.offset, count, weights.length, weights, ws.scores);
+        double biasGradient = 0.0;
+        for(int b = 0; b < count; b++) {
+            double error = sigmoid(ws.scores[b] + bias) - ws.labels[b];
+            Kernels.DEFAULT.axpy(error, ws.source, ws.offset + b * weights.length, ws.gradient, weights.length);
+            biasGradient += error;
+        }
+        return biasGradient;
+    }
+
+    // Same as gradient, and also adds the rows' log-loss to ws.loss.
+    private double lossGradient(SgdWorkers.Workspace ws, int count) {
+        Kernels.DEFAULT.gemv(ws.source, ws.offset, count, weights.length, weights, ws.scores);
+        double biasGradient = 0.0;
+        for(int b = 0; b < count; b++) {
+            double z = ws.scores[b] + bias;
+            double label = ws.labels[b];
+            double error = sigmoid(z) - label;
+            // log(1 + e^z) - y * z, without overflowing for large |z|
+            ws.loss += (z > 0 ? z + Math.log1p(Math.exp(-z)) : Math.log1p(Math.exp(z))) - label * z;
+            Kernels.DEFAULT.axpy(error, ws.source, ws.offset + b * weights.length, ws.gradient, weights.length);
+            biasGradient += error;
+        }
+        return biasGradient;
+    }
+
+    private void minimize(DifferentiableFunction objective, List<Instance<F, L>> validationSet,
+                          List<Double> validationAccuracies, List<Double> losses) {
+        double[] x = Arrays.copyOf(weights, weights.length + 1);
+        x[weights.length] = bias;
+        minimizer.start(objective, x);
+        for(int iteration = 0; iteration < maxEpochs && minimizer.step(); iteration++) {
+            setParameters(x);
+            validate(validationSet, validationAccuracies, iteration);
+            double loss = computeLoss(validationSet);
+            losses.add(loss);
+            System.out.println("Objective: " + minimizer.value() + " Loss: " + loss);
+        }
+        setParameters(x);
+        if (minimizer.iterations() == 0) {
+            validate(validationSet, validationAccuracies, 0);
+        }
+        System.out.println((minimizer.hasConverged() ? "Converged" : "Stopped") + " after "
+                + minimizer.iterations() + " iterations");
+    }
+
+    // x = [w, b]
+    private void setParameters(double[] x) {
+        System.arraycopy(x, 0, weights, 0, weights.length);
+        bias = x[weights.length];
+    }
+
+    private void addSums(SgdWorkers.Workspace total, double[] gradient) {
+        Kernels.DEFAULT.axpy(1.0, total.gradient, 0, gradient, weights.length);
+        gradient[weights.length] += total.biasGradient;
+    }
+
+    // Turns per-row sums over `rows` rows into the mean objective and its gradient.
+    private double objective(double[] gradient, double loss, long rows) {
+        double penalty = 0.0;
+        for (int w = 0; w < weights.length; w++) {
+            gradient[w] = gradient[w] / rows + l2 * weights[w];
+            penalty += weights[w] * weights[w];
+        }
+        gradient[weights.length] /= rows;
+        return loss / rows + 0.5 * l2 * penalty;
+    }
+
+    private void applyGradient(double[] weightsUpdate, double biasUpdate, int batchCount) {
+        for (int w = 0; w < weights.length; w++) {
+            weightsUpdate[w] /= batchCount;
+        }
+        updateWeights(weightsUpdate, biasUpdate / batchCount);
+    }
+
     @Override
     public EvaluationMetrics test(List<Instance<F, L>> testSet){
         // Use best checkpoint
@@ -134,6 +465,16 @@ public class LogisticRegression<F extends Number, L extends Number> implements M
 
     public List<L> getPredictions(List<Instance<F, L>> dataSet){
         List<L> preds = new ArrayList<>();
+        if (!dataSet.isEmpty() && !dataSet.get(0).isSparse()) {
+            for (int i = 0; i < dataSet.size(); i += SCORE_BLOCK) {
+                List<Instance<F, L>> block = dataSet.subList(i, Math.min(i + SCORE_BLOCK, dataSet.size()));
+                scoreDense(block);
+                for (int b = 0; b < block.size(); b++) {
+                    preds.add((L)(Integer.valueOf(sigmoid(batchScores[b] + bias) >= 0.5 ? 1 : 0)));
+                }
+            }
+            return preds;
+        }
         for (Instance<F, L> inst : dataSet) {
             double prediction = predict(inst);
             int predLabel = (prediction >= 0.5) ? 1 : 0;
@@ -142,19 +483,115 @@ public class LogisticRegression<F extends Number, L extends Number> implements M
         return preds;
     }
 
+    // Leaves w . x (without the bias) for each row of the batch in batchScores[0 .. batch.size())
+    private void scoreDense(List<Instance<F, L>> batch) {
+        ensureBatchBuffers(batch.size());
+        for (int b = 0; b < batch.size(); b++) {
+            batch.get(b).copyFeatures(batchRows, b * weights.length);
+        }
+        Kernels.DEFAULT.gemv(batchRows, 0, batch.size(), weights.length, weights, batchScores);
+    }
+
+    private void ensureBatchBuffers(int rows) {
+        if (batchScores == null || batchScores.length < rows) {
+            batchRows = new double[rows * weights.length];
+            batchScores = new double[rows];
+        }
+    }
+
+    private void updateSparse(List<Instance<F, L>> batch, SparseBuffers buffers) {
+        double biasUpdate = 0.0;
+        for(Instance<F, L> instance : batch) {
+            double error = predict(instance) - instance.getLabel().doubleValue();
+            for(int k = 0; k < instance.getNonZeroCount(); k++) {
+                buffers.add(instance.getNonZeroIndex(k), error * instance.getNonZeroValue(k));
+            }
+            biasUpdate += error;
+        }
+        int batchCount = batch.size();
+        if (optimizer != null) {
+            for(int t = 0; t < buffers.count; t++) {
+                buffers.update[buffers.features[t]] /= batchCount;
+            }
+            bias = optimizer.step(weights, buffers.update, buffers.features, buffers.count, bias, biasUpdate / batchCount);
+        } else {
+            for(int t = 0; t < buffers.count; t++) {
+                int w = buffers.features[t];
+                weights[w] -= learningRate * buffers.update[w] / batchCount;
+            }
+            bias -= learningRate * biasUpdate / batchCount;
+        }
+        buffers.clear();
+    }
+
+    private void startRegularized() {
+        sparseOptimizer.init(weights.length);
+        Arrays.fill(weights, 0.0);
+        bias = 0.0;
+    }
+
+    // One example: reads and updates only its non-zero features.
+    private void updateRegularized(Instance<F, L> instance) {
+        double output = bias;
+        for(int k = 0; k < instance.getNonZeroCount(); k++) {
+            output += instance.getNonZeroValue(k) * sparseOptimizer.weight(weights, instance.getNonZeroIndex(k));
+        }
+        double error = sigmoid(output) - instance.getLabel().doubleValue();
+        for(int k = 0; k < instance.getNonZeroCount(); k++) {
+            sparseOptimizer.update(weights, instance.getNonZeroIndex(k), error * instance.getNonZeroValue(k));
+        }
+        bias = sparseOptimizer.updateBias(bias, error);
+        sparseOptimizer.endStep();
+    }
+
+    public int nonZeroWeights() {
+        int count = 0;
+        for (double w : weights) {
+            if (w != 0.0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void updateSparse(List<Instance<F, L>> batch) {
+        if (sparseBuffers == null) {
+            sparseBuffers = new SparseBuffers(weights.length);
+        }
+        updateSparse(batch, sparseBuffers);
+    }
+
     public double predict(Instance<F, L> instance) {
-        List<F> features = instance.getFeatures();
         double output = this.bias;
-        for(int i = 0; i < weights.length; i++) {
-            output += features.get(i).doubleValue() * weights[i];
+        if (instance.isSparse()) {
+            for(int k = 0; k < instance.getNonZeroCount(); k++) {
+                output += instance.getNonZeroValue(k) * weights[instance.getNonZeroIndex(k)];
+            }
+        } else {
+            output += instance.dot(weights);
+        }
+        return sigmoid(output);
+    }
+
+    public double predict(FeatureMatrix data, int row) {
+        double output = this.bias;
+        if (data.isSparse()) {
+            for(int k = 0; k < data.nonZeroCount(row); k++) {
+                output += data.nonZeroValue(row, k) * weights[data.nonZeroIndex(row, k)];
+            }
+        } else {
+            output += data.dot(row, weights);
         }
         return sigmoid(output);
     }
 
+    // weightsUpdate is the mean loss gradient of a batch
     public void updateWeights(double[] weightsUpdate, double biasUpdate) {
-        for(int i = 0; i < weights.length; i++) {
-            weights[i] -= learningRate * weightsUpdate[i];
+        if (optimizer != null) {
+            bias = optimizer.step(weights, weightsUpdate, bias, biasUpdate);
+            return;
         }
+        Kernels.DEFAULT.axpy(-learningRate, weightsUpdate, weights);
         bias -= learningRate * biasUpdate;
     }
 
@@ -0,0 +1,84 @@
+package com.example.ml.model;
+
+import com.example.ml.data.CsvTail;
+import com.example.ml.data.Instance;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// Keeps a model fresh from a growing CSV file: polls the tail, feeds each new micro-batch to
+// partialFit and publishes a snapshot after it. Run it on its own thread; scorers call current().
+public class OnlineTrainer<S> implements Runnable {
+    private final IncrementalModel<Double, Integer> model;
+    private final Supplier<S> snapshot;
+    private final CsvTail tail;
+    private final long pollMillis;
+    private volatile S current;
+    private volatile boolean running = true;
+    private volatile long failures;
+    private volatile RuntimeException lastFailure;
+
+    public OnlineTrainer(IncrementalModel<Double, Integer> model, Supplier<S> snapshot, CsvTail tail,
+                         long pollMillis) {
+        this.model = model;
+        this.snapshot = snapshot;
+        this.tail = tail;
+        this.pollMillis = pollMillis;
+        this.current = snapshot.get();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (!pollSafely()) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // A failed poll is reported and the loop keeps going; the last published snapshot stays current.
+    private boolean pollSafely() {
+        try {
+            return poll();
+        } catch (RuntimeException e) {
+            failures++;
+            lastFailure = e;
+            System.out.println("Online training poll failed:");
+            e.printStackTrace(System.out);
+            return false;
+        }
+    }
+
+    // Trains on whatever has been appended since the last poll; false when nothing had.
+    public boolean poll() {
+        List<Instance<Double, Integer>> batch = tail.poll();
+        if (batch.isEmpty()) {
+            return false;
+        }
+        model.partialFit(batch);
+        current = snapshot.get();
+        return true;
+    }
+
+    public S current() {
+        return current;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    // Most recent failed poll, or null if none has failed.
+    public RuntimeException getLastFailure() {
+        return lastFailure;
+    }
+
+    public void stop() {
+        running = false;
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.ml.model;
 
+import com.example.ml.data.BlockSource;
+import com.example.ml.data.FeatureMatrix;
 import com.example.ml.data.Instance;
+import com.example.ml.data.RowBlock;
 import com.example.ml.evaluation.*;
+import com.example.ml.optim.Optimizer;
+import com.example.ml.utils.Kernels;
 import org.knowm.xchart.SwingWrapper;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYChartBuilder;
@@ -9,8 +14,9 @@ import org.knowm.xchart.XYChartBuilder;
 import java.io.Serializable;
 import java.util.*;
 
-public class Perceptron<F extends Number, L extends Number> implements Model<F, L>, Serializable {
+public class Perceptron<F extends Number, L extends Number> implements IncrementalModel<F, L>, Serializable {
     private static final long serialVersionUID = 1L;
+    private static final int SCORE_BLOCK = 256;
 
     double[] weights;
     double[] checkpointWeights;
@@ -20,8 +26,39 @@ public class Perceptron<F extends Number, L extends Number> implements Model<F,
     int maxEpochs;
     int batchSize;
     double bestAccuracy;
+    SgdMode sgdMode;
+    int parallelism;
+    // Updates go through this when set; sparse batches step only the features they touch
+    Optimizer optimizer;
+
+    // Sequential sparse batches accumulate here and only touch the features they contain
+    private transient SparseBuffers sparseBuffers;
+
+    // Dense batches are copied row-major into batchRows so one gemv scores the whole batch
+    private transient double[] batchRows;
+    private transient double[] batchScores;
+
+    // Rows seen through partialFit, and the sequential workspace it reuses across calls
+    long updates;
+    private transient SgdWorkers streamWorkers;
 
     public Perceptron(int inputSize, double learningRate, int maxEpochs, int batchSize) {
+        this(inputSize, learningRate, maxEpochs, batchSize, SgdMode.SEQUENTIAL, 1);
+    }
+
+    // learningRate is the schedule's first rate; the optimizer takes every step.
+    public Perceptron(int inputSize, Optimizer optimizer, int maxEpochs, int batchSize,
+                      SgdMode sgdMode, int parallelism) {
+        this(inputSize, optimizer.getSchedule().rate(1), maxEpochs, batchSize, sgdMode, parallelism);
+        if (sgdMode == SgdMode.HOGWILD && !optimizer.isStateless()) {
+            throw new IllegalArgumentException(optimizer.getClass().getSimpleName()
+                    + " keeps per-weight state that Hogwild workers would race on; use Sgd or another SgdMode");
+        }
+        this.optimizer = optimizer;
+    }
+
+    public Perceptron(int inputSize, double learningRate, int maxEpochs, int batchSize,
+                      SgdMode sgdMode, int parallelism) {
         this.weights = new double[inputSize];
         this.checkpointWeights = new double[inputSize];
         Random rand = new Random(42);
@@ -34,39 +71,165 @@ public class Perceptron<F extends Number, L extends Number> implements Model<F,
         this.maxEpochs = maxEpochs;
         this.batchSize = batchSize;
         this.bestAccuracy = 0.0;
+        this.sgdMode = sgdMode;
+        this.parallelism = parallelism;
     }
 
+    // Sparse batches take the touched-features path, sharded over threads in HOGWILD mode.
     @Override
     public void train(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet) {
         List<Double> validationAccuracies = new ArrayList<>();
 
-        for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
-            Collections.shuffle(trainSet);
-
-            for(int i = 0; i < trainSet.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, trainSet.size());
-                List<Instance<F, L>> batch = trainSet.subList(i, end);
-
-                double[] weightsUpdate = new double[weights.length];
-                double biasUpdate = 0.0;
-                for(Instance<F, L> instance : batch) {
-                    List<F> features = instance.getFeatures();
-                    int label = instance.getLabel().intValue();
-                    int prediction = predict(instance);
-                    int error = (label - prediction) / 2;
-                    for(int w = 0; w < weightsUpdate.length; w++) {
-                        weightsUpdate[w] += learningRate * error * features.get(w).doubleValue();
+        if (optimizer != null) {
+            optimizer.init(weights.length);
+        }
+        SgdWorkers.Gradient batchGradient = (ws, from, to) -> gradient(ws, trainSet, from, to);
+        SgdWorkers.SparseBatch sparseBatch = (buffers, from, to) -> updateSparse(trainSet.subList(from, to), buffers);
+        try (SgdWorkers workers = new SgdWorkers(sgdMode, parallelism, weights.length, batchSize)) {
+            for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
+                Collections.shuffle(trainSet);
+                boolean sparse = !trainSet.isEmpty() && trainSet.get(0).isSparse();
+
+                if (workers.isHogwild() && sparse) {
+                    workers.hogwild(trainSet.size(), batchSize, sparseBatch);
+                } else if (workers.isHogwild()) {
+                    workers.hogwild(trainSet.size(), batchSize, batchGradient,
+                            this::applyUpdate);
+                } else {
+                    for(int i = 0; i < trainSet.size(); i += batchSize) {
+                        int end = Math.min(i + batchSize, trainSet.size());
+                        if (sparse) {
+                            updateSparse(trainSet.subList(i, end));
+                            continue;
+                        }
+                        SgdWorkers.Workspace total = workers.synchronous(i, end, batchGradient);
+                        applyUpdate(total.gradient, total.biasGradient, end - i);
                     }
-                    biasUpdate += learningRate * error;
                 }
+                validate(validationSet, validationAccuracies, epoch);
+            }
+        }
+        plotValidationAccuracies(validationAccuracies);
+    }
+
+    // One pass over a micro-batch in batchSize steps, continuing from the current weights and
+    // optimizer state. Always sequential so no worker threads outlive the call. Labels may be 0/1 or
+    // -1/1, as streamed files usually carry 0/1.
+    @Override
+    public synchronized void partialFit(List<Instance<F, L>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (optimizer != null && optimizer.getSteps() == 0) {
+            optimizer.init(weights.length);
+        }
+        boolean sparse = batch.get(0).isSparse();
+        if (!sparse && streamWorkers == null) {
+            streamWorkers = new SgdWorkers(SgdMode.SEQUENTIAL, 1, weights.length, batchSize);
+        }
+        SgdWorkers.Gradient batchGradient = (ws, from, to) -> {
+            ws.load(batch, from, to);
+            mapLabels(ws, to - from);
+            return gradient(ws, to - from);
+        };
+        for(int i = 0; i < batch.size(); i += batchSize) {
+            int end = Math.min(i + batchSize, batch.size());
+            if (sparse) {
+                updateSparse(batch.subList(i, end));
+                continue;
+            }
+            SgdWorkers.Workspace total = streamWorkers.synchronous(i, end, batchGradient);
+            applyUpdate(total.gradient, total.biasGradient, end - i);
+        }
+        updates += batch.size();
+    }
+
+    // Consistent copy of the current weights for scoring on other threads.
+    public synchronized LinearSnapshot snapshot() {
+        return new LinearSnapshot(weights, bias, false, updates);
+    }
 
-                updateWeights(weightsUpdate, biasUpdate);
+    // Out-of-core training: each epoch re-reads the source one block at a time and
+    // shuffles rows within the block, so memory is bounded by the block size.
+    public void train(BlockSource trainSource, List<Instance<F, L>> validationSet) {
+        if (trainSource.numFeatures() != weights.length) {
+            throw new IllegalArgumentException("Source has " + trainSource.numFeatures()
+                    + " features but the model has " + weights.length);
+        }
+        List<Double> validationAccuracies = new ArrayList<>();
+        RowBlock block = new RowBlock(trainSource.blockSize(), weights.length);
+        Random rand = new Random(42);
+
+        if (optimizer != null) {
+            optimizer.init(weights.length);
+        }
+        try (SgdWorkers workers = new SgdWorkers(sgdMode, parallelism, weights.length, batchSize)) {
+            for(int epoch = 0; epoch < this.maxEpochs; epoch++) {
+                try (BlockSource.BlockReader reader = trainSource.open()) {
+                    while (reader.next(block)) {
+                        block.shuffle(rand);
+                        trainOnBlock(block, workers);
+                    }
+                }
+                validate(validationSet, validationAccuracies, epoch);
             }
-            validate(validationSet, validationAccuracies, epoch);
         }
         plotValidationAccuracies(validationAccuracies);
     }
 
+    private void trainOnBlock(RowBlock block, SgdWorkers workers) {
+        SgdWorkers.Gradient batchGradient = (ws, from, to) -> gradient(ws, block, from, to);
+        if (workers.isHogwild()) {
+            workers.hogwild(block.numRows(), batchSize, batchGradient,
+                    this::applyUpdate);
+            return;
+        }
+        for(int i = 0; i < block.numRows(); i += batchSize) {
+            int end = Math.min(i + batchSize, block.numRows());
+            SgdWorkers.Workspace total = workers.synchronous(i, end, batchGradient);
+            applyUpdate(total.gradient, total.biasGradient, end - i);
+        }
+    }
+
+    private double gradient(SgdWorkers.Workspace ws, List<Instance<F, L>> rows, int from, int to) {
+        ws.load(rows, from, to);
+        return gradient(ws, to - from);
+    }
+
+    private double gradient(SgdWorkers.Workspace ws, RowBlock block, int from, int to) {
+        ws.load(block, from, to);
+        mapLabels(ws, to - from);
+        return gradient(ws, to - from);
+    }
+
+    // Streamed labels are not converted up front, so 0/1 files are mapped to -1/1 here
+    private static void mapLabels(SgdWorkers.Workspace ws, int count) {
+        for(int b = 0; b < count; b++) {
+            if (ws.labels[b] == 0) {
+                ws.labels[b] = -1;
+            }
+        }
+    }
+
+    // Perceptron rule over the loaded rows: misclassified rows add learningRate * y * x to ws.gradient.
+    // With an optimizer they add -y * x instead, the gradient of the perceptron criterion, and the
+    // optimizer chooses the step.
+    private double gradient(SgdWorkers.Workspace ws, int count) {
+        Kernels.DEFAULT.gemv(ws.source, ws.offset, count, weights.length, weights, ws.scores);
+        double learningRate = optimizer == null ? this.learningRate : -1.0;
+        double biasUpdate = 0.0;
+        for(int b = 0; b < count; b++) {
+            int label = (int) ws.labels[b];
+            int prediction = ws.scores[b] + bias >= 0 ? 1 : -1;
+            int error = (label - prediction) / 2;
+            if (error != 0) {
+                Kernels.DEFAULT.axpy(learningRate * error, ws.source, ws.offset + b * weights.length, ws.gradient, weights.length);
+            }
+            biasUpdate += learningRate * error;
+        }
+        return biasUpdate;
+    }
+
     @Override
     public EvaluationMetrics test(List<Instance<F, L>> testSet){
         // Use best checkpoint
@@ -102,6 +265,16 @@ public class Perceptron<F extends Number, L extends Number> implements Model<F,
 
     public List<L> getPredictions(List<Instance<F, L>> dataSet){
         List<L> predictions = new ArrayList<>();
+        if (!dataSet.isEmpty() && !dataSet.get(0).isSparse()) {
+            for (int i = 0; i < dataSet.size(); i += SCORE_BLOCK) {
+                List<Instance<F, L>> block = dataSet.subList(i, Math.min(i + SCORE_BLOCK, dataSet.size()));
+                scoreDense(block);
+                for (int b = 0; b < block.size(); b++) {
+                    predictions.add((L)(Integer.valueOf(batchScores[b] + bias >= 0 ? 1 : -1)));
+                }
+            }
+            return predictions;
+        }
         for (Instance<F, L> instance : dataSet) {
             int prediction = predict(instance);
             predictions.add((L)(Integer.valueOf(prediction)));
@@ -109,11 +282,63 @@ public class Perceptron<F extends Number, L extends Number> implements Model<F,
         return predictions;
     }
 
+    private void updateSparse(List<Instance<F, L>> batch, SparseBuffers buffers) {
+        double learningRate = optimizer == null ? this.learningRate : -1.0;
+        double biasUpdate = 0.0;
+        for(Instance<F, L> instance : batch) {
+            // 0/1 labels are mapped to -1/1 as on the dense path, or label-0 rows would never update
+            int label = instance.getLabel().intValue() == 0 ? -1 : instance.getLabel().intValue();
+            int error = (label - predict(instance)) / 2;
+            for(int k = 0; k < instance.getNonZeroCount(); k++) {
+                buffers.add(instance.getNonZeroIndex(k), learningRate * error * instance.getNonZeroValue(k));
+            }
+            biasUpdate += learningRate * error;
+        }
+        if (optimizer != null) {
+            for(int t = 0; t < buffers.count; t++) {
+                buffers.update[buffers.features[t]] /= batch.size();
+            }
+            bias = optimizer.step(weights, buffers.update, buffers.features, buffers.count, bias, biasUpdate / batch.size());
+        } else {
+            for(int t = 0; t < buffers.count; t++) {
+                weights[buffers.features[t]] += buffers.update[buffers.features[t]];
+            }
+            bias += biasUpdate;
+        }
+        buffers.clear();
+    }
+
+    // Leaves w . x (without the bias) for each row of the batch in batchScores[0 .. batch.size())
+    private void scoreDense(List<Instance<F, L>> batch) {
+        ensureBatchBuffers(batch.size());
+        for (int b = 0; b < batch.size(); b++) {
+            batch.get(b).copyFeatures(batchRows, b * weights.length);
+        }
+        Kernels.DEFAULT.gemv(batchRows, 0, batch.size(), weights.length, weights, batchScores);
+    }
+
+    private void ensureBatchBuffers(int rows) {
+        if (batchScores == null || batchScores.length < rows) {
+            batchRows = new double[rows * weights.length];
+            batchScores = new double[rows];
+        }
+    }
+
+    private void updateSparse(List<Instance<F, L>> batch) {
+        if (sparseBuffers == null) {
+            sparseBuffers = new SparseBuffers(weights.length);
+        }
+        updateSparse(batch, sparseBuffers);
+    }
+
     public int predict(Instance<F, L> instance) {
-        List<F> features = instance.getFeatures();
         double output = this.bias;
-        for(int i = 0; i < weights.length; i++) {
-            output += features.get(i).doubleValue() * weights[i];
+        if (instance.isSparse()) {
+            for(int k = 0; k < instance.getNonZeroCount(); k++) {
+                output += instance.getNonZeroValue(k) * weights[instance.getNonZeroIndex(k)];
+            }
+        } else {
+            output += instance.dot(weights);
         }
         if(output >= 0) {
             return 1;
@@ -123,10 +348,38 @@ public class Perceptron<F extends Number, L extends Number> implements Model<F,
         }
     }
 
+    public int predict(FeatureMatrix data, int row) {
+        double output = this.bias;
+        if (data.isSparse()) {
+            for(int k = 0; k < data.nonZeroCount(row); k++) {
+                output += data.nonZeroValue(row, k) * weights[data.nonZeroIndex(row, k)];
+            }
+        } else {
+            output += data.dot(row, weights);
+        }
+        return output >= 0 ? 1 : -1;
+    }
+
+    // Summed perceptron updates are added as is; an optimizer gets the batch mean of the criterion's
+    // gradient instead, like the mean loss gradient LogisticRegression passes, so the same optimizer
+    // settings behave the same in both models.
+    private void applyUpdate(double[] update, double biasUpdate, int count) {
+        if (optimizer != null) {
+            for (int w = 0; w < weights.length; w++) {
+                update[w] /= count;
+            }
+            biasUpdate /= count;
+        }
+        updateWeights(update, biasUpdate);
+    }
+
+    // weightsUpdate is added as is, or handed to the optimizer as a gradient when one is set
     public void updateWeights(double[] weightsUpdate, double biasUpdate) {
-        for(int i = 0; i < weights.length; i++) {
-            weights[i] += weightsUpdate[i];
+        if (optimizer != null) {
+            bias = optimizer.step(weights, weightsUpdate, bias, biasUpdate);
+            return;
         }
+        Kernels.DEFAULT.axpy(1.0, weightsUpdate, weights);
         bias += biasUpdate;
     }
 
@@ -0,0 +1,223 @@
+package com.example.ml.model;
+
+import com.example.ml.data.BinnedMatrix;
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.data.IndexView;
+import com.example.ml.data.Instance;
+import com.example.ml.evaluation.*;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Bagged decision trees. Every tree sees a bootstrap sample of row indices into the shared training
+// matrix and picks its splits from a random feature subset at each node. Trees are trained and
+// evaluated in parallel on a fixed pool of `parallelism` threads; results are combined in tree order,
+// so a given seed always gives the same forest and the same predictions.
+public class RandomForest<F extends Number, L extends Number> implements Model<F, L>, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // MAJORITY counts tree votes; PROBABILITY averages the label-1 share of the leaves
+    public enum Voting { MAJORITY, PROBABILITY }
+
+    private List<DecisionTree<F, L>> trees;
+    private int numTrees;
+    private int maxDepth;
+    private int minSamplesSplit;
+    private int maxFeatures; // 0 uses sqrt(number of features)
+    private DecisionTree.SplitMode splitMode;
+    private Voting voting;
+    private int parallelism;
+    private long seed;
+
+    public RandomForest(int numTrees, int maxDepth, int minSamplesSplit) {
+        this(numTrees, maxDepth, minSamplesSplit, 0, DecisionTree.SplitMode.EXACT, Voting.MAJORITY,
+                Runtime.getRuntime().availableProcessors(), 42L);
+    }
+
+    public RandomForest(int numTrees, int maxDepth, int minSamplesSplit, int maxFeatures,
+                        DecisionTree.SplitMode splitMode, Voting voting, int parallelism, long seed) {
+        this.numTrees = numTrees;
+        this.maxDepth = maxDepth;
+        this.minSamplesSplit = minSamplesSplit;
+        this.maxFeatures = maxFeatures;
+        this.splitMode = splitMode;
+        this.voting = voting;
+        this.parallelism = parallelism;
+        this.seed = seed;
+        this.trees = new ArrayList<>();
+    }
+
+    @Override
+    public void train(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet) {
+        IndexView data = IndexView.of(trainSet);
+        int n = data.numRows();
+        int numFeatures = data.numFeatures();
+        int featuresPerNode = maxFeatures > 0 ? maxFeatures : Math.max(1, (int) Math.sqrt(numFeatures));
+        BinnedMatrix binned = splitMode == DecisionTree.SplitMode.HISTOGRAM ? BinnedMatrix.quantize(data) : null;
+        // Exact trees share one presorted copy of the data and keep only their draw counts
+        ExactTreeBuilder.Presorted presorted = binned == null
+                ? new ExactTreeBuilder.Presorted(data.getBase(), data.getRows(), null) : null;
+
+        List<Callable<DecisionTree<F, L>>> tasks = new ArrayList<>(numTrees);
+        for (int t = 0; t < numTrees; t++) {
+            long treeSeed = seed + t;
+            tasks.add(() -> {
+                Random random = new Random(treeSeed);
+                int[] sample = binned != null ? new int[n] : null;
+                int[] counts = binned != null ? null : new int[n];
+                for (int i = 0; i < n; i++) {
+                    int draw = random.nextInt(n);
+                    if (binned != null) {
+                        sample[i] = draw;
+                    } else {
+                        counts[draw]++;
+                    }
+                }
+                FeatureSampler sampler = new FeatureSampler(numFeatures, featuresPerNode, random.nextLong());
+                DecisionTree<F, L> tree = new DecisionTree<>(maxDepth, minSamplesSplit, splitMode, BinnedMatrix.MAX_BINS);
+                if (binned != null) {
+                    tree.train(binned, sample, sampler);
+                } else {
+                    tree.train(presorted, counts, sampler);
+                }
+                return tree;
+            });
+        }
+        this.trees = invokeAll(tasks);
+
+        evaluateAndStore(validationSet, "Validation");
+    }
+
+    @Override
+    public EvaluationMetrics test(List<Instance<F, L>> testSet) {
+        List<L> predictions = getPredictions(testSet);
+        Accuracy<F, L> accuracy = new Accuracy<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Precision<F, L> precision = new Precision<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Recall<F, L> recall = new Recall<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        F1Score<F, L> f1Score = new F1Score<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+
+        double acc = accuracy.evaluate(testSet, predictions);
+        double prec = precision.evaluate(testSet, predictions);
+        double rec = recall.evaluate(testSet, predictions);
+        double f1 = f1Score.evaluate(testSet, predictions);
+
+        return new EvaluationMetrics(acc, prec, rec, f1);
+    }
+
+    public int predictSingle(Instance<F, L> instance) {
+        double[] row = new double[instance.getFeatureCount()];
+        for (int f = 0; f < row.length; f++) {
+            row[f] = instance.getFeatureValue(f);
+        }
+        double score = 0.0;
+        for (DecisionTree<F, L> tree : trees) {
+            score += voting == Voting.PROBABILITY ? tree.getTree().probability(row) : tree.getTree().predict(row);
+        }
+        return score / trees.size() >= 0.5 ? 1 : 0;
+    }
+
+    // Share of trees voting 1, or the averaged leaf probability, for every row of the matrix.
+    public double[] predictProbability(FeatureMatrix matrix) {
+        int numRows = matrix.numRows();
+        List<Callable<double[]>> tasks = new ArrayList<>(trees.size());
+        for (DecisionTree<F, L> tree : trees) {
+            tasks.add(() -> {
+                double[] scores = new double[numRows];
+                if (voting == Voting.PROBABILITY) {
+                    tree.getTree().probability(matrix, scores);
+                } else {
+                    int[] votes = tree.predict(matrix);
+                    for (int r = 0; r < numRows; r++) {
+                        scores[r] = votes[r];
+                    }
+                }
+                return scores;
+            });
+        }
+
+        double[] sum = new double[numRows];
+        for (double[] scores : invokeAll(tasks)) {
+            for (int r = 0; r < numRows; r++) {
+                sum[r] += scores[r];
+            }
+        }
+        for (int r = 0; r < numRows; r++) {
+            sum[r] /= trees.size();
+        }
+        return sum;
+    }
+
+    public int[] predict(FeatureMatrix matrix) {
+        double[] probabilities = predictProbability(matrix);
+        int[] out = new int[probabilities.length];
+        for (int r = 0; r < out.length; r++) {
+            out[r] = probabilities[r] >= 0.5 ? 1 : 0;
+        }
+        return out;
+    }
+
+    public List<L> getPredictions(List<Instance<F, L>> dataSet) {
+        int[] preds = predict(IndexView.of(dataSet));
+        return new AbstractList<L>() {
+            @Override
+            public L get(int index) {
+                return (L) Integer.valueOf(preds[index]);
+            }
+
+            @Override
+            public int size() {
+                return preds.length;
+            }
+        };
+    }
+
+    public List<DecisionTree<F, L>> getTrees() {
+        return trees;
+    }
+
+    // Runs the tasks on a bounded pool and returns their results in submission order.
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, tasks.size())));
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void evaluateAndStore(List<Instance<F, L>> dataset, String datasetName) {
+        List<L> predictions = getPredictions(dataset);
+        Accuracy<F, L> accuracy = new Accuracy<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Precision<F, L> precision = new Precision<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        Recall<F, L> recall = new Recall<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+        F1Score<F, L> f1Score = new F1Score<>((L) Integer.valueOf(1), (L) Integer.valueOf(0));
+
+        double acc = accuracy.evaluate(dataset, predictions);
+        double prec = precision.evaluate(dataset, predictions);
+        double rec = recall.evaluate(dataset, predictions);
+        double f1 = f1Score.evaluate(dataset, predictions);
+
+        System.out.println(datasetName + " Metrics:");
+        System.out.println("Accuracy: " + String.format("%.4f", acc));
+        System.out.println("Precision: " + String.format("%.4f", prec));
+        System.out.println("Recall: " + String.format("%.4f", rec));
+        System.out.println("F1 Score: " + String.format("%.4f", f1));
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.ml.model;
+
+import com.example.ml.data.BinnedMatrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+
+// Second-order regression tree for gradient boosting, grown on quantized features. A node's
+// histogram holds per feature and bin the sums of gradients, hessians and rows; the smaller child is
+// counted from its rows and the larger one is parent - smaller. A split's gain is
+// GL^2 / (HL + lambda) + GR^2 / (HR + lambda) - G^2 / (H + lambda) and a leaf predicts -G / (H + lambda).
+// Parallelism follows HistogramTreeBuilder: forked subtrees and per-feature histogram work,
+// reduced in feature order.
+class RegressionTreeBuilder {
+    private static final int SUBTREE_THRESHOLD = 2048;
+    private static final int FEATURE_THRESHOLD = 32768;
+
+    private final BinnedMatrix binned;
+    private final double[] gradients;
+    private final double[] hessians;
+    private final int[] rows;
+    private final int[] features;
+    private final int[] offsets; // first histogram slot of each feature
+    private final int totalBins;
+
+    private final int maxDepth;
+    private final int minSamplesLeaf;
+    private final double lambda;
+    private final ForkJoinPool pool;
+
+    // rows are the sampled rows of binned; features the sorted subset this tree may split on.
+    RegressionTreeBuilder(BinnedMatrix binned, double[] gradients, double[] hessians, int[] rows, int[] features,
+                          int maxDepth, int minSamplesLeaf, double lambda, ForkJoinPool pool) {
+        this.binned = binned;
+        this.gradients = gradients;
+        this.hessians = hessians;
+        this.rows = rows;
+        this.features = features;
+        this.maxDepth = maxDepth;
+        this.minSamplesLeaf = Math.max(1, minSamplesLeaf);
+        this.lambda = lambda;
+        this.pool = pool;
+
+        int numFeatures = binned.numFeatures();
+        this.offsets = new int[numFeatures + 1];
+        for (int f = 0; f < numFeatures; f++) {
+            offsets[f + 1] = offsets[f] + binned.numBins(f);
+        }
+        this.totalBins = offsets[numFeatures];
+    }
+
+    Node build() {
+        if (pool == null) {
+            return buildNode(0, rows.length, 0, histogram(0, rows.length));
+        }
+        return pool.invoke(new NodeTask(0, rows.length, 0, null));
+    }
+
+    // Slots 3 * (offsets[f] + bin) + 0, 1, 2 hold the gradient sum, hessian sum and row count.
+    private double[] histogram(int from, int to) {
+        double[] hist = new double[3 * totalBins];
+        forEachFeature(to - from, f -> {
+            byte[] column = binned.getColumn(f);
+            int base = 3 * offsets[f];
+            for (int p = from; p < to; p++) {
+                int row = rows[p];
+                int slot = base + 3 * (column[row] & 0xFF);
+                hist[slot] += gradients[row];
+                hist[slot + 1] += hessians[row];
+                hist[slot + 2]++;
+            }
+        });
+        return hist;
+    }
+
+    private Node buildNode(int from, int to, int depth, double[] hist) {
+        int size = to - from;
+        double gradient = 0.0;
+        double hessian = 0.0;
+        for (int p = from; p < to; p++) {
+            gradient += gradients[rows[p]];
+            hessian += hessians[rows[p]];
+        }
+
+        Node node = new Node();
+        node.value = -gradient / (hessian + lambda);
+        if (depth >= maxDepth || size < 2 * minSamplesLeaf) {
+            return node;
+        }
+
+        int[] bins = new int[offsets.length - 1];
+        double[] gains = new double[offsets.length - 1];
+        double totalGradient = gradient;
+        double totalHessian = hessian;
+        forEachFeature(size, f -> bestBin(f, hist, size, totalGradient, totalHessian, bins, gains));
+
+        int bestFeature = -1;
+        double bestGain = 1e-12;
+        for (int f : features) {
+            if (bins[f] >= 0 && gains[f] > bestGain) {
+                bestGain = gains[f];
+                bestFeature = f;
+            }
+        }
+        if (bestFeature < 0) {
+            return node;
+        }
+
+        node.feature = bestFeature;
+        node.bin = bins[bestFeature];
+        node.threshold = binned.getThreshold(bestFeature, node.bin);
+
+        int mid = partition(from, to, binned.getColumn(bestFeature), node.bin);
+        double[] leftHist;
+        double[] rightHist;
+        if (mid - from <= to - mid) {
+            leftHist = histogram(from, mid);
+            rightHist = subtract(hist, leftHist);
+        } else {
+            rightHist = histogram(mid, to);
+            leftHist = subtract(hist, rightHist);
+        }
+        if (pool != null && size >= SUBTREE_THRESHOLD) {
+            NodeTask left = new NodeTask(from, mid, depth + 1, leftHist);
+            left.fork();
+            node.right = buildNode(mid, to, depth + 1, rightHist);
+            node.left = left.join();
+        } else {
+            node.left = buildNode(from, mid, depth + 1, leftHist);
+            node.right = buildNode(mid, to, depth + 1, rightHist);
+        }
+        return node;
+    }
+
+    private void bestBin(int f, double[] hist, int size, double gradient, double hessian, int[] bins, double[] gains) {
+        int base = 3 * offsets[f];
+        int numBins = offsets[f + 1] - offsets[f];
+        double parentScore = gradient * gradient / (hessian + lambda);
+        double leftGradient = 0.0;
+        double leftHessian = 0.0;
+        int leftCount = 0;
+        int bestBin = -1;
+        double bestGain = Double.NEGATIVE_INFINITY;
+        for (int b = 0; b < numBins - 1; b++) {
+            leftGradient += hist[base + 3 * b];
+            leftHessian += hist[base + 3 * b + 1];
+            leftCount += (int) hist[base + 3 * b + 2];
+            int rightCount = size - leftCount;
+            if (leftCount < minSamplesLeaf) continue;
+            if (rightCount < minSamplesLeaf) break;
+
+            double rightGradient = gradient - leftGradient;
+            double rightHessian = hessian - leftHessian;
+            double gain = leftGradient * leftGradient / (leftHessian + lambda)
+                    + rightGradient * rightGradient / (rightHessian + lambda) - parentScore;
+            if (gain > bestGain) {
+                bestGain = gain;
+                bestBin = b;
+            }
+        }
+        bins[f] = bestBin;
+        gains[f] = bestGain;
+    }
+
+    // The parent histogram is no longer needed, so the larger child reuses its array.
+    private static double[] subtract(double[] parent, double[] child) {
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] -= child[i];
+        }
+        return parent;
+    }
+
+    private int partition(int from, int to, byte[] column, int bin) {
+        int i = from;
+        int j = to - 1;
+        while (i <= j) {
+            if ((column[rows[i]] & 0xFF) <= bin) {
+                i++;
+            } else {
+                int tmp = rows[i];
+                rows[i] = rows[j];
+                rows[j--] = tmp;
+            }
+        }
+        return i;
+    }
+
+    // Runs the action for this tree's features, in parallel on the pool when the node is large enough.
+    private void forEachFeature(int size, IntConsumer action) {
+        if (pool == null || size < FEATURE_THRESHOLD || features.length < 2) {
+            for (int f : features) {
+                action.accept(f);
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(features.length);
+        for (int f : features) {
+            tasks.add(ForkJoinTask.adapt(() -> action.accept(f)));
+        }
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        }
+    }
+
+    // Forked and joined in one pool, never serialized
+    @SuppressWarnings("serial")
+    private class NodeTask extends RecursiveTask<Node> {
+        private final int from;
+        private final int to;
+        private final int depth;
+        private final double[] hist;
+
+        NodeTask(int from, int to, int depth, double[] hist) {
+            this.from = from;
+            this.to = to;
+            this.depth = depth;
+            this.hist = hist;
+        }
+
+        @Override
+        protected Node compute() {
+            return buildNode(from, to, depth, hist != null ? hist : histogram(from, to));
+        }
+    }
+
+    // Split on "bin <= bin", equivalently "value <= threshold"; feature -1 marks a leaf.
+    static final class Node {
+        int feature = -1;
+        int bin;
+        double threshold = Double.NaN;
+        double value;
+        Node left;
+        Node right;
+
+        double predict(BinnedMatrix binned, int row) {
+            Node node = this;
+            while (node.feature >= 0) {
+                node = binned.getBin(row, node.feature) <= node.bin ? node.left : node.right;
+            }
+            return node.value;
+        }
+    }
+}
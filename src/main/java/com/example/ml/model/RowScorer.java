@@ -0,0 +1,6 @@
+package com.example.ml.model;
+
+// Scores one dense row: a tree's leaf label, or an ensemble's raw additive score.
+public interface RowScorer {
+    double score(double[] row);
+}
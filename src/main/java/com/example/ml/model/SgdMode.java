@@ -0,0 +1,15 @@
+package com.example.ml.model;
+
+// How the linear models spread mini-batch SGD over threads.
+public enum SgdMode {
+    // One thread, mini-batches in order.
+    SEQUENTIAL,
+    // Each mini-batch is split into one contiguous chunk per thread; the per-thread gradients are
+    // summed in thread order before the update, so a given thread count always gives the same model.
+    SYNCHRONOUS,
+    // Each thread runs mini-batches over its own shard of the epoch and updates the shared weights
+    // without locks (Niu et al., Hogwild!, 2011). Fast on sparse or low-contention problems, but the
+    // result depends on scheduling. Workers share one optimizer, so only stateless ones (Sgd) are
+    // accepted: its step count is atomic, and the bias is updated racily like any other weight.
+    HOGWILD
+}
@@ -0,0 +1,235 @@
+package com.example.ml.model;
+
+import com.example.ml.data.Instance;
+import com.example.ml.data.RowBlock;
+import com.example.ml.utils.Kernels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Thread pool and per-thread buffers for mini-batch SGD in the linear models. The model
+// supplies the gradient of a row range and how to apply an update; this class decides which
+// thread computes what. With SEQUENTIAL mode or one thread everything runs on the caller.
+// Sparse batches only run through hogwild; the other modes keep them on the caller.
+final class SgdWorkers implements AutoCloseable {
+
+    // Adds the gradient of rows [from, to) to ws.gradient and returns the bias gradient.
+    interface Gradient {
+        double compute(Workspace ws, int from, int to);
+    }
+
+    interface Update {
+        void apply(double[] gradient, double biasGradient, int count);
+    }
+
+    // Applies the sparse mini-batch [from, to) straight to the model, using the worker's scratch.
+    interface SparseBatch {
+        void apply(SparseBuffers buffers, int from, int to);
+    }
+
+    private interface BatchAction {
+        void run(Workspace ws, int from, int to);
+    }
+
+    static final class Workspace {
+        final int numFeatures;
+        final int capacity;
+        // Allocated on the first dense load, so sparse training never pays for capacity x numFeatures
+        double[] rows;
+        final double[] scores;
+        final double[] labels;
+        final double[] gradient;
+        double biasGradient;
+        // Summed by full-batch passes that also need the objective
+        double loss;
+        // Rows being processed: row b starts at source[offset + b * numFeatures]
+        double[] source;
+        int offset;
+        SparseBuffers sparse;
+
+        Workspace(int capacity, int numFeatures) {
+            this.numFeatures = numFeatures;
+            this.capacity = capacity;
+            this.scores = new double[capacity];
+            this.labels = new double[capacity];
+            this.gradient = new double[numFeatures];
+        }
+
+        void load(List<? extends Instance<?, ? extends Number>> instances, int from, int to) {
+            if (rows == null) {
+                rows = new double[capacity * numFeatures];
+            }
+            for (int b = 0; b < to - from; b++) {
+                Instance<?, ? extends Number> instance = instances.get(from + b);
+                instance.copyFeatures(rows, b * numFeatures);
+                labels[b] = instance.getLabel().doubleValue();
+            }
+            source = rows;
+            offset = 0;
+        }
+
+        // Reads the block's rows in place; only labels are copied.
+        void load(RowBlock block, int from, int to) {
+            for (int b = 0; b < to - from; b++) {
+                labels[b] = block.getLabel(from + b);
+            }
+            source = block.getValues();
+            offset = from * numFeatures;
+        }
+    }
+
+    private final SgdMode mode;
+    private final Workspace[] workspaces;
+    private final ExecutorService executor;
+
+    SgdWorkers(SgdMode mode, int parallelism, int numFeatures, int batchSize) {
+        this.mode = mode;
+        int threads = mode == SgdMode.SEQUENTIAL ? 1 : Math.max(1, parallelism);
+        // A synchronous worker only ever sees its chunk of a batch
+        int capacity = mode == SgdMode.SYNCHRONOUS ? (batchSize + threads - 1) / threads : batchSize;
+        this.workspaces = new Workspace[threads];
+        for (int t = 0; t < threads; t++) {
+            workspaces[t] = new Workspace(capacity, numFeatures);
+        }
+        this.executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    }
+
+    // For full-batch passes: `threads` workers reading chunks of up to chunkSize rows.
+    SgdWorkers(int threads, int numFeatures, int chunkSize) {
+        this(SgdMode.SYNCHRONOUS, threads, numFeatures, Math.max(1, threads) * chunkSize);
+    }
+
+    // Gradient of the batch [from, to), summed over workers in worker order into the returned workspace.
+    Workspace synchronous(int from, int to, Gradient gradient) {
+        if (workspaces.length == 1) {
+            // Inline so sequential training allocates nothing per batch
+            Workspace ws = workspaces[0];
+            Arrays.fill(ws.gradient, 0.0);
+            ws.biasGradient = gradient.compute(ws, from, to);
+            return ws;
+        }
+        int chunk = (to - from + workspaces.length - 1) / workspaces.length;
+        List<Callable<Void>> tasks = new ArrayList<>(workspaces.length);
+        for (int t = 0; t < workspaces.length; t++) {
+            Workspace ws = workspaces[t];
+            int start = Math.min(to, from + t * chunk);
+            int end = Math.min(to, start + chunk);
+            tasks.add(() -> {
+                Arrays.fill(ws.gradient, 0.0);
+                ws.biasGradient = start < end ? gradient.compute(ws, start, end) : 0.0;
+                return null;
+            });
+        }
+        invokeAll(tasks);
+        Workspace total = workspaces[0];
+        for (int t = 1; t < workspaces.length; t++) {
+            Kernels.DEFAULT.axpy(1.0, workspaces[t].gradient, total.gradient);
+            total.biasGradient += workspaces[t].biasGradient;
+        }
+        return total;
+    }
+
+    // Gradient and loss over rows [0, size) in chunks of the workspace capacity. Worker t takes
+    // chunks t, t + threads, ... and the workers are summed in order, so for a given thread count
+    // the result does not depend on scheduling.
+    Workspace fullBatch(int size, Gradient gradient) {
+        int chunk = workspaces[0].scores.length;
+        List<Callable<Void>> tasks = new ArrayList<>(workspaces.length);
+        for (int t = 0; t < workspaces.length; t++) {
+            Workspace ws = workspaces[t];
+            int first = t;
+            tasks.add(() -> {
+                Arrays.fill(ws.gradient, 0.0);
+                double biasGradient = 0.0;
+                ws.loss = 0.0;
+                for (long start = (long) first * chunk; start < size; start += (long) workspaces.length * chunk) {
+                    biasGradient += gradient.compute(ws, (int) start, (int) Math.min(size, start + chunk));
+                }
+                ws.biasGradient = biasGradient;
+                return null;
+            });
+        }
+        invokeAll(tasks);
+        Workspace total = workspaces[0];
+        for (int t = 1; t < workspaces.length; t++) {
+            Kernels.DEFAULT.axpy(1.0, workspaces[t].gradient, total.gradient);
+            total.biasGradient += workspaces[t].biasGradient;
+            total.loss += workspaces[t].loss;
+        }
+        return total;
+    }
+
+    // One epoch over rows [0, size): each worker runs mini-batches over its own contiguous shard
+    // and applies every update straight to the shared model.
+    void hogwild(int size, int batchSize, Gradient gradient, Update update) {
+        shards(size, batchSize, (ws, from, to) -> {
+            Arrays.fill(ws.gradient, 0.0);
+            double biasGradient = gradient.compute(ws, from, to);
+            update.apply(ws.gradient, biasGradient, to - from);
+        });
+    }
+
+    // Sparse rows, where Hogwild pays off most: batches rarely touch the same features.
+    void hogwild(int size, int batchSize, SparseBatch batch) {
+        shards(size, batchSize, (ws, from, to) -> {
+            if (ws.sparse == null) {
+                ws.sparse = new SparseBuffers(ws.numFeatures);
+            }
+            batch.apply(ws.sparse, from, to);
+        });
+    }
+
+    private void shards(int size, int batchSize, BatchAction action) {
+        List<Callable<Void>> tasks = new ArrayList<>(workspaces.length);
+        for (int t = 0; t < workspaces.length; t++) {
+            Workspace ws = workspaces[t];
+            int start = (int) ((long) size * t / workspaces.length);
+            int end = (int) ((long) size * (t + 1) / workspaces.length);
+            tasks.add(() -> {
+                for (int i = start; i < end; i += batchSize) {
+                    action.run(ws, i, Math.min(i + batchSize, end));
+                }
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    boolean isHogwild() {
+        return mode == SgdMode.HOGWILD;
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks) {
+        try {
+            if (executor == null) {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+                return;
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ml.model;
+
+// Scratch for one sparse mini-batch: the summed update of every feature the batch touches and the
+// list of those features, so applying and clearing it costs O(touched) rather than O(weights).
+// Hogwild workers each own one.
+final class SparseBuffers {
+    final double[] update;
+    final boolean[] touched;
+    final int[] features;
+    int count;
+
+    SparseBuffers(int numFeatures) {
+        this.update = new double[numFeatures];
+        this.touched = new boolean[numFeatures];
+        this.features = new int[numFeatures];
+    }
+
+    void add(int feature, double value) {
+        if (!touched[feature]) {
+            touched[feature] = true;
+            features[count++] = feature;
+        }
+        update[feature] += value;
+    }
+
+    void clear() {
+        for (int t = 0; t < count; t++) {
+            update[features[t]] = 0.0;
+            touched[features[t]] = false;
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.ml.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+// Turns a trained tree or ensemble into a hidden class of nested comparisons on a double[] row,
+// so inference has no node loop or array loads left for the JIT to see through. Each node becomes
+//   row[f] <= threshold ? <left> : <right>
+// and each leaf returns its value. A subtree that would push a method past HotSpot's 8000-byte
+// limit for JIT compilation is moved into a static method of its own. When the class cannot be
+// generated (constant pool or method count limits, very wide rows), compile returns the
+// array-walking interpreter instead.
+public final class TreeCompiler {
+    static final int MAX_METHOD_BYTES = 8000;
+    private static final int TREES_PER_SUM = 1000;
+
+    private static final String CLASS_NAME = "com/example/ml/model/GeneratedScorer";
+    private static final String ROW_DESCRIPTOR = "([D)D";
+    private static final String SUM_DESCRIPTOR = "(D[D)D";
+
+    private static final int NODE_BYTES = 12; // aload, push feature, daload, ldc2_w, dcmpg, ifgt
+    private static final int LEAF_BYTES = 4;  // ldc2_w, dreturn
+    private static final int CALL_BYTES = 5;  // aload, invokestatic, dreturn
+
+    private TreeCompiler() {
+    }
+
+    // Returns the tree's leaf label for a row.
+    public static RowScorer compile(FlatTree tree) {
+        double[] values = new double[tree.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = tree.leafValue[i];
+        }
+        try {
+            return generate(0.0, new int[]{0}, tree.feature, tree.threshold, tree.left, values);
+        } catch (IllegalStateException e) {
+            return row -> tree.predict(row);
+        }
+    }
+
+    // Returns the ensemble's raw score for a row.
+    public static RowScorer compile(TreeEnsemble ensemble) {
+        try {
+            return generate(ensemble.getBaseScore(), ensemble.roots, ensemble.feature, ensemble.threshold,
+                    ensemble.stepBase, ensemble.value);
+        } catch (IllegalStateException e) {
+            return ensemble::score;
+        }
+    }
+
+    public static boolean isGenerated(RowScorer scorer) {
+        // Lambdas are hidden classes too, so check the name as well.
+        Class<?> type = scorer.getClass();
+        return type.isHidden() && type.getName().startsWith(CLASS_NAME.replace('/', '.'));
+    }
+
+    // Nodes of all trees share one index space; the right child of node i is left[i] + 1.
+    private static RowScorer generate(double baseScore, int[] roots, int[] feature, double[] threshold,
+                                      int[] left, double[] values) {
+        for (int f : feature) {
+            if (f > Short.MAX_VALUE) {
+                throw new IllegalStateException("Feature index too large for sipush");
+            }
+        }
+        int[] bytes = subtreeBytes(feature, left);
+        ClassFileWriter writer = new ClassFileWriter();
+        Code code = new Code();
+
+        // One static method per tree root, plus every subtree that had to be moved out.
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        for (int root : roots) {
+            pending.add(root);
+        }
+        while (!pending.isEmpty()) {
+            int node = pending.poll();
+            code.reset();
+            emitNode(code, node, feature, threshold, left, values, bytes, writer, pending);
+            writer.addMethod(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC, methodName(node),
+                    ROW_DESCRIPTOR, 4, 1, code.bytes, code.length);
+        }
+
+        // sum<k>(total, row) adds up to TREES_PER_SUM trees to the running total, and score chains
+        // them from the base score, so values are added in the same order as TreeEnsemble.score.
+        int sums = (roots.length + TREES_PER_SUM - 1) / TREES_PER_SUM;
+        if (sums > MAX_METHOD_BYTES / 5) {
+            throw new IllegalStateException("Too many trees");
+        }
+        for (int k = 0; k < sums; k++) {
+            code.reset();
+            code.u1(0x26); // dload_0
+            for (int t = k * TREES_PER_SUM; t < Math.min(roots.length, (k + 1) * TREES_PER_SUM); t++) {
+                code.u1(0x2C); // aload_2
+                code.u1(0xB8); // invokestatic
+                code.u2(writer.methodRef(CLASS_NAME, methodName(roots[t]), ROW_DESCRIPTOR));
+                code.u1(0x63); // dadd
+            }
+            code.u1(0xAF); // dreturn
+            writer.addMethod(ClassFileWriter.ACC_PRIVATE | ClassFileWriter.ACC_STATIC, "sum" + k,
+                    SUM_DESCRIPTOR, 4, 3, code.bytes, code.length);
+        }
+
+        code.reset();
+        pushDouble(code, writer, baseScore);
+        for (int k = 0; k < sums; k++) {
+            code.u1(0x2B); // aload_1
+            code.u1(0xB8); // invokestatic
+            code.u2(writer.methodRef(CLASS_NAME, "sum" + k, SUM_DESCRIPTOR));
+        }
+        code.u1(0xAF); // dreturn
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "score", ROW_DESCRIPTOR, 3, 2, code.bytes, code.length);
+
+        code.reset();
+        code.u1(0x2A); // aload_0
+        code.u1(0xB7); // invokespecial
+        code.u2(writer.methodRef("java/lang/Object", "<init>", "()V"));
+        code.u1(0xB1); // return
+        writer.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", 1, 1, code.bytes, code.length);
+
+        byte[] classBytes = writer.toByteArray(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL
+                | ClassFileWriter.ACC_SUPER, CLASS_NAME, "java/lang/Object", "com/example/ml/model/RowScorer");
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classBytes, true);
+            return (RowScorer) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Bytes of a subtree when every node is inlined. Children come after their parent in
+    // breadth-first order, so one backwards pass per tree is enough.
+    private static int[] subtreeBytes(int[] feature, int[] left) {
+        int[] bytes = new int[feature.length];
+        for (int i = feature.length - 1; i >= 0; i--) {
+            if (feature[i] < 0) {
+                bytes[i] = LEAF_BYTES;
+            } else {
+                bytes[i] = (int) Math.min((long) NODE_BYTES + bytes[left[i]] + bytes[left[i] + 1], Integer.MAX_VALUE);
+            }
+        }
+        return bytes;
+    }
+
+    // Inlines a child while its whole subtree still fits in the method, leaving room for an
+    // outlined call to the right sibling; anything larger becomes a call to a method of its own.
+    private static void emitNode(Code code, int node, int[] feature, double[] threshold, int[] left, double[] values,
+                                 int[] bytes, ClassFileWriter writer, ArrayDeque<Integer> pending) {
+        if (feature[node] < 0) {
+            pushDouble(code, writer, values[node]);
+            code.u1(0xAF); // dreturn
+            return;
+        }
+        code.u1(0x2A); // aload_0
+        pushInt(code, feature[node]);
+        code.u1(0x31); // daload
+        code.u1(0x14); // ldc2_w
+        code.u2(writer.doubleConstant(threshold[node]));
+        code.u1(0x98); // dcmpg: 1 when row[f] > threshold or NaN
+        int branch = code.length;
+        code.u1(0x9D); // ifgt -> right
+        code.u2(0);
+
+        int[] children = {left[node], left[node] + 1};
+        for (int c = 0; c < 2; c++) {
+            if (c == 1) {
+                code.patch(branch + 1, code.length - branch);
+            }
+            int child = children[c];
+            int reserve = c == 0 ? CALL_BYTES : 0;
+            if (code.length + bytes[child] + reserve <= MAX_METHOD_BYTES) {
+                emitNode(code, child, feature, threshold, left, values, bytes, writer, pending);
+            } else {
+                code.u1(0x2A); // aload_0
+                code.u1(0xB8); // invokestatic
+                code.u2(writer.methodRef(CLASS_NAME, methodName(child), ROW_DESCRIPTOR));
+                code.u1(0xAF); // dreturn
+                pending.add(child);
+            }
+        }
+    }
+
+    private static String methodName(int node) {
+        return "n" + node;
+    }
+
+    private static void pushInt(Code code, int value) {
+        if (value <= 5) {
+            code.u1(0x03 + value); // iconst_<n>
+        } else if (value <= Byte.MAX_VALUE) {
+            code.u1(0x10); // bipush
+            code.u1(value);
+        } else {
+            code.u1(0x11); // sipush
+            code.u2(value);
+        }
+    }
+
+    private static void pushDouble(Code code, ClassFileWriter writer, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        if (bits == 0L) {
+            code.u1(0x0E); // dconst_0
+        } else if (bits == Double.doubleToRawLongBits(1.0)) {
+            code.u1(0x0F); // dconst_1
+        } else {
+            code.u1(0x14); // ldc2_w
+            code.u2(writer.doubleConstant(value));
+        }
+    }
+
+    private static final class Code {
+        byte[] bytes = new byte[256];
+        int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void u1(int value) {
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void u2(int value) {
+            u1(value >>> 8);
+            u1(value);
+        }
+
+        void patch(int position, int value) {
+            bytes[position] = (byte) (value >>> 8);
+            bytes[position + 1] = (byte) value;
+        }
+    }
+}
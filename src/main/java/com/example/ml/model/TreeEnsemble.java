@@ -0,0 +1,177 @@
+package com.example.ml.model;
+
+import com.example.ml.data.FeatureMatrix;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+// Additive regression trees in one set of flat arrays: tree t's nodes start at roots[t] and are laid
+// out breadth-first, so siblings are adjacent and a step is stepBase[node] + (x <= threshold ? 0 : 1)
+// as in FlatTree. Leaves test feature 0 against NaN with stepBase = itself - 1, so they never move.
+// Batch scoring copies a block of rows into a local buffer once, then takes it through each tree
+// level by level and adds the leaf values.
+public class TreeEnsemble implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int BLOCK_SIZE = 32;
+
+    private final double baseScore;
+    final int[] roots;
+    final int[] depths;
+    final int[] feature;     // -1 for leaves
+    final double[] threshold;
+    final int[] stepFeature;
+    final int[] stepBase;
+    final double[] value;    // leaf output, 0 for inner nodes
+
+    private TreeEnsemble(double baseScore, int[] roots, int[] depths, int[] feature, double[] threshold,
+                         int[] stepBase, double[] value) {
+        this.baseScore = baseScore;
+        this.roots = roots;
+        this.depths = depths;
+        this.feature = feature;
+        this.threshold = threshold;
+        this.stepBase = stepBase;
+        this.value = value;
+        this.stepFeature = new int[feature.length];
+        for (int i = 0; i < feature.length; i++) {
+            stepFeature[i] = Math.max(feature[i], 0);
+        }
+    }
+
+    // Leaf values are multiplied by shrinkage while flattening.
+    static TreeEnsemble compile(double baseScore, List<RegressionTreeBuilder.Node> trees, double shrinkage) {
+        int total = 0;
+        for (RegressionTreeBuilder.Node root : trees) {
+            total += countNodes(root);
+        }
+        int[] roots = new int[trees.size()];
+        int[] depths = new int[trees.size()];
+        int[] feature = new int[total];
+        double[] threshold = new double[total];
+        int[] stepBase = new int[total];
+        double[] value = new double[total];
+
+        int next = 0;
+        ArrayDeque<RegressionTreeBuilder.Node> queue = new ArrayDeque<>();
+        ArrayDeque<Integer> levels = new ArrayDeque<>();
+        for (int t = 0; t < trees.size(); t++) {
+            roots[t] = next;
+            int i = next++;
+            queue.add(trees.get(t));
+            levels.add(0);
+            for (; !queue.isEmpty(); i++) {
+                RegressionTreeBuilder.Node node = queue.poll();
+                int level = levels.poll();
+                depths[t] = Math.max(depths[t], level);
+                if (node.feature < 0) {
+                    feature[i] = -1;
+                    threshold[i] = Double.NaN;
+                    stepBase[i] = i - 1;
+                    value[i] = node.value * shrinkage;
+                } else {
+                    feature[i] = node.feature;
+                    threshold[i] = node.threshold;
+                    stepBase[i] = next;
+                    next += 2;
+                    queue.add(node.left);
+                    queue.add(node.right);
+                    levels.add(level + 1);
+                    levels.add(level + 1);
+                }
+            }
+        }
+        return new TreeEnsemble(baseScore, roots, depths, feature, threshold, stepBase, value);
+    }
+
+    private static int countNodes(RegressionTreeBuilder.Node root) {
+        int count = 0;
+        ArrayDeque<RegressionTreeBuilder.Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            RegressionTreeBuilder.Node node = stack.pop();
+            count++;
+            if (node.feature >= 0) {
+                stack.push(node.left);
+                stack.push(node.right);
+            }
+        }
+        return count;
+    }
+
+    public int numTrees() {
+        return roots.length;
+    }
+
+    public double getBaseScore() {
+        return baseScore;
+    }
+
+    // Raw additive score (log-odds for logistic loss) of one row.
+    public double score(double[] row) {
+        double sum = baseScore;
+        for (int root : roots) {
+            int node = root;
+            int f;
+            while ((f = feature[node]) >= 0) {
+                node = stepBase[node] + (row[f] <= threshold[node] ? 0 : 1);
+            }
+            sum += value[node];
+        }
+        return sum;
+    }
+
+    public void score(FeatureMatrix matrix, double[] out) {
+        int numRows = matrix.numRows();
+        int numFeatures = matrix.numFeatures();
+        int[] nodes = new int[BLOCK_SIZE];
+        double[] block = new double[BLOCK_SIZE * numFeatures]; // rows of the block, row-major
+        for (int start = 0; start < numRows; start += BLOCK_SIZE) {
+            int count = Math.min(BLOCK_SIZE, numRows - start);
+            for (int r = 0; r < count; r++) {
+                for (int f = 0; f < numFeatures; f++) {
+                    block[r * numFeatures + f] = matrix.get(start + r, f);
+                }
+            }
+            Arrays.fill(out, start, start + count, baseScore);
+            for (int t = 0; t < roots.length; t++) {
+                Arrays.fill(nodes, 0, count, roots[t]);
+                boolean moved = true;
+                for (int level = 0; level < depths[t] && moved; level++) {
+                    moved = false;
+                    for (int r = 0; r < count; r++) {
+                        int node = nodes[r];
+                        int next = stepBase[node] + (block[r * numFeatures + stepFeature[node]] <= threshold[node] ? 0 : 1);
+                        moved |= next != node;
+                        nodes[r] = next;
+                    }
+                }
+                for (int r = 0; r < count; r++) {
+                    out[start + r] += value[nodes[r]];
+                }
+            }
+        }
+    }
+
+    public int[] getRoots() {
+        return roots;
+    }
+
+    public int[] getFeatures() {
+        return feature;
+    }
+
+    public double[] getThresholds() {
+        return threshold;
+    }
+
+    // Left child of an inner node; the right child is the next index.
+    public int[] getChildren() {
+        return stepBase;
+    }
+
+    public double[] getValues() {
+        return value;
+    }
+}
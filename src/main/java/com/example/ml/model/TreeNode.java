@@ -1,8 +1,10 @@
 package com.example.ml.model;
 
-import java.util.List;
+import java.io.Serializable;
+
+public class TreeNode implements Serializable {
+    private static final long serialVersionUID = 1L;
 
-public class TreeNode {
     // Splitting info
     public int splitFeatureIndex = -1;
     public double splitThreshold = Double.NaN;
@@ -14,7 +16,17 @@ public class TreeNode {
     // Leaf info
     public boolean isLeaf = false;
     public int predictedLabel = -1; // or 0/1
+    public double positiveFraction = Double.NaN; // share of label-1 training rows
 
     // Constructor
     public TreeNode() {}
+
+    // Majority label, ties going to 1
+    static TreeNode leaf(int positives, int size) {
+        TreeNode node = new TreeNode();
+        node.isLeaf = true;
+        node.predictedLabel = (positives >= size - positives) ? 1 : 0;
+        node.positiveFraction = size > 0 ? (double) positives / size : 1.0;
+        return node;
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.ml.optim;
+
+// Per-coordinate rates from the sum of squared gradients (Duchi et al., 2011):
+// G += g^2, w -= rate * g / (sqrt(G) + epsilon).
+public class AdaGrad extends Optimizer {
+    private static final long serialVersionUID = 1L;
+
+    final double epsilon;
+    double[] squaredSum;
+
+    public AdaGrad(double learningRate) {
+        this(LearningRateSchedule.constant(learningRate), 1e-8);
+    }
+
+    public AdaGrad(LearningRateSchedule schedule, double epsilon) {
+        super(schedule);
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    protected void allocate(int size) {
+        squaredSum = new double[size];
+    }
+
+    @Override
+    protected double apply(double[] weights, double[] gradient, int[] indices, int count,
+                           double bias, double biasGradient, double rate) {
+        int n = weights.length;
+        for (int k = 0; k < count; k++) {
+            int i = indices == null ? k : indices[k];
+            double g = gradient[i];
+            squaredSum[i] += g * g;
+            weights[i] -= rate * g / (Math.sqrt(squaredSum[i]) + epsilon);
+        }
+        squaredSum[n] += biasGradient * biasGradient;
+        return bias - rate * biasGradient / (Math.sqrt(squaredSum[n]) + epsilon);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.ml.optim;
+
+// Kingma & Ba (2015): bias-corrected moving averages of the gradient and its square,
+// w -= rate * m_hat / (sqrt(v_hat) + epsilon).
+public class Adam extends Optimizer {
+    private static final long serialVersionUID = 1L;
+
+    final double beta1;
+    final double beta2;
+    final double epsilon;
+    double[] firstMoment;
+    double[] secondMoment;
+
+    public Adam(double learningRate) {
+        this(LearningRateSchedule.constant(learningRate), 0.9, 0.999, 1e-8);
+    }
+
+    public Adam(LearningRateSchedule schedule, double beta1, double beta2, double epsilon) {
+        super(schedule);
+        this.beta1 = beta1;
+        this.beta2 = beta2;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    protected void allocate(int size) {
+        firstMoment = new double[size];
+        secondMoment = new double[size];
+    }
+
+    @Override
+    protected double apply(double[] weights, double[] gradient, int[] indices, int count,
+                           double bias, double biasGradient, double rate) {
+        // Fold both bias corrections into the step size and epsilon
+        double correction1 = 1.0 - Math.pow(beta1, steps);
+        double correction2 = Math.sqrt(1.0 - Math.pow(beta2, steps));
+        double stepSize = rate * correction2 / correction1;
+        double scaledEpsilon = epsilon * correction2;
+        int n = weights.length;
+        for (int k = 0; k < count; k++) {
+            int i = indices == null ? k : indices[k];
+            double g = gradient[i];
+            firstMoment[i] = beta1 * firstMoment[i] + (1.0 - beta1) * g;
+            secondMoment[i] = beta2 * secondMoment[i] + (1.0 - beta2) * g * g;
+            weights[i] -= stepSize * firstMoment[i] / (Math.sqrt(secondMoment[i]) + scaledEpsilon);
+        }
+        firstMoment[n] = beta1 * firstMoment[n] + (1.0 - beta1) * biasGradient;
+        secondMoment[n] = beta2 * secondMoment[n] + (1.0 - beta2) * biasGradient * biasGradient;
+        return bias - stepSize * firstMoment[n] / (Math.sqrt(secondMoment[n]) + scaledEpsilon);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.ml.optim;
+
+public interface DifferentiableFunction {
+    // Returns f(x) and writes the gradient at x into gradient.
+    double evaluate(double[] x, double[] gradient);
+}
@@ -0,0 +1,58 @@
+package com.example.ml.optim;
+
+// FTRL-Proximal (McMahan et al., KDD 2013). Each coordinate keeps z, the sum of gradients less a
+// proximal correction, and n, the sum of squared gradients; its weight is solved from them in closed
+// form, w = 0 when |z| <= l1 and -(z - sign(z) * l1) / ((beta + sqrt(n)) / alpha + l2) otherwise.
+// Untouched coordinates have z = 0, so features a row never strengthens stay exactly zero. Weights
+// are rewritten whenever their coordinate is updated, so nothing is ever owed.
+public class Ftrl extends SparseOptimizer {
+    private static final long serialVersionUID = 1L;
+
+    final double alpha;
+    final double beta;
+    final double l1;
+    final double l2;
+    double[] z;
+    double[] n;
+
+    public Ftrl(double alpha, double beta, double l1, double l2) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.l1 = l1;
+        this.l2 = l2;
+    }
+
+    // Bias is stored after the weights.
+    @Override
+    protected void allocate(int numWeights) {
+        z = new double[numWeights + 1];
+        n = new double[numWeights + 1];
+    }
+
+    @Override
+    public double weight(double[] weights, int j) {
+        return weights[j];
+    }
+
+    @Override
+    public void update(double[] weights, int j, double g) {
+        weights[j] = step(j, weights[j], g, true);
+    }
+
+    @Override
+    public double updateBias(double bias, double g) {
+        return step(z.length - 1, bias, g, false);
+    }
+
+    private double step(int j, double w, double g, boolean regularized) {
+        double l1 = regularized ? this.l1 : 0.0;
+        double l2 = regularized ? this.l2 : 0.0;
+        double sigma = (Math.sqrt(n[j] + g * g) - Math.sqrt(n[j])) / alpha;
+        z[j] += g - sigma * w;
+        n[j] += g * g;
+        if (Math.abs(z[j]) <= l1) {
+            return 0.0;
+        }
+        return -(z[j] - Math.copySign(l1, z[j])) / ((beta + Math.sqrt(n[j])) / alpha + l2);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.ml.optim;
+
+import com.example.ml.utils.Kernels;
+
+// Limited-memory BFGS (Nocedal & Wright, Numerical Optimization, algorithms 7.4 and 7.5). The
+// inverse Hessian is approximated from the last `history` steps s = x' - x and gradient changes
+// y = g' - g with the two-loop recursion, and every step is found by backtracking until the Armijo
+// condition holds. Converged once |g| <= tolerance * max(1, |x|) or the value changes by no more
+// than tolerance * max(1, |f|) in one iteration.
+public class LBfgs implements Minimizer {
+    private static final double ARMIJO = 1e-4;
+    private static final int MAX_BACKTRACKS = 40;
+    // A pair is kept only when s.y > CURVATURE * y.y, which also bounds the H0 scale s.y / y.y
+    private static final double CURVATURE = 1e-10;
+
+    private final int history;
+    private final double tolerance;
+
+    private DifferentiableFunction function;
+    private double[] x;
+    private double[] gradient;
+    private double value;
+    private double[] previousX;
+    private double[] previousGradient;
+    private double[] direction;
+    // Ring buffer of the last `stored` (s, y) pairs; the newest is at newest
+    private double[][] s;
+    private double[][] y;
+    private double[] rho;
+    private double[] alpha;
+    private int stored;
+    private int newest;
+    private int iterations;
+    private boolean converged;
+
+    public LBfgs() {
+        this(10, 1e-6);
+    }
+
+    public LBfgs(int history, double tolerance) {
+        this.history = history;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public void start(DifferentiableFunction function, double[] x) {
+        int n = x.length;
+        this.function = function;
+        this.x = x;
+        this.gradient = new double[n];
+        this.previousX = new double[n];
+        this.previousGradient = new double[n];
+        this.direction = new double[n];
+        this.s = new double[history][n];
+        this.y = new double[history][n];
+        this.rho = new double[history];
+        this.alpha = new double[history];
+        this.stored = 0;
+        this.newest = -1;
+        this.iterations = 0;
+        this.value = function.evaluate(x, gradient);
+        this.converged = norm(gradient) <= tolerance * Math.max(1.0, norm(x));
+    }
+
+    @Override
+    public boolean step() {
+        if (converged) {
+            return false;
+        }
+        searchDirection();
+        double slope = Kernels.DEFAULT.dot(direction, gradient);
+        if (!(slope < 0.0)) {
+            // Not a descent direction: drop the history and fall back to steepest descent
+            stored = 0;
+            searchDirection();
+            slope = Kernels.DEFAULT.dot(direction, gradient);
+        }
+
+        int n = x.length;
+        System.arraycopy(x, 0, previousX, 0, n);
+        System.arraycopy(gradient, 0, previousGradient, 0, n);
+        double previousValue = value;
+        // Without curvature information a unit step along -g can be arbitrarily long
+        double step = stored == 0 ? Math.min(1.0, 1.0 / norm(gradient)) : 1.0;
+        boolean accepted = false;
+        for (int b = 0; b < MAX_BACKTRACKS; b++) {
+            System.arraycopy(previousX, 0, x, 0, n);
+            Kernels.DEFAULT.axpy(step, direction, x);
+            value = function.evaluate(x, gradient);
+            if (value <= previousValue + ARMIJO * step * slope) {
+                accepted = true;
+                break;
+            }
+            step *= 0.5;
+        }
+        if (!accepted) {
+            System.arraycopy(previousX, 0, x, 0, n);
+            System.arraycopy(previousGradient, 0, gradient, 0, n);
+            value = previousValue;
+            converged = true;
+            return false;
+        }
+        iterations++;
+
+        // s and y go into the scratch arrays first, so a rejected pair never overwrites a stored one
+        for (int i = 0; i < n; i++) {
+            previousX[i] = x[i] - previousX[i];
+            previousGradient[i] = gradient[i] - previousGradient[i];
+        }
+        double sy = Kernels.DEFAULT.dot(previousX, previousGradient);
+        double yy = Kernels.DEFAULT.dot(previousGradient, previousGradient);
+        // Keep the approximation positive definite: skip pairs without enough curvature
+        if (sy > CURVATURE * yy) {
+            int slot = (newest + 1) % history;
+            double[] swap = s[slot];
+            s[slot] = previousX;
+            previousX = swap;
+            swap = y[slot];
+            y[slot] = previousGradient;
+            previousGradient = swap;
+            rho[slot] = 1.0 / sy;
+            newest = slot;
+            stored = Math.min(stored + 1, history);
+        }
+
+        converged = norm(gradient) <= tolerance * Math.max(1.0, norm(x))
+                || Math.abs(previousValue - value) <= tolerance * Math.max(1.0, Math.abs(value));
+        return true;
+    }
+
+    // direction = -H g by the two-loop recursion, H0 scaled by s.y / y.y of the newest pair.
+    private void searchDirection() {
+        int n = x.length;
+        for (int i = 0; i < n; i++) {
+            direction[i] = -gradient[i];
+        }
+        int slot = newest;
+        for (int k = 0; k < stored; k++) {
+            alpha[slot] = rho[slot] * Kernels.DEFAULT.dot(s[slot], direction);
+            Kernels.DEFAULT.axpy(-alpha[slot], y[slot], direction);
+            slot = (slot - 1 + history) % history;
+        }
+        if (stored > 0) {
+            double gamma = 1.0 / (rho[newest] * Kernels.DEFAULT.dot(y[newest], y[newest]));
+            for (int i = 0; i < n; i++) {
+                direction[i] *= gamma;
+            }
+        }
+        slot = (newest - stored + 1 + history) % history;
+        for (int k = 0; k < stored; k++) {
+            double beta = rho[slot] * Kernels.DEFAULT.dot(y[slot], direction);
+            Kernels.DEFAULT.axpy(alpha[slot] - beta, s[slot], direction);
+            slot = (slot + 1) % history;
+        }
+    }
+
+    private static double norm(double[] v) {
+        return Math.sqrt(Kernels.DEFAULT.dot(v, v));
+    }
+
+    @Override
+    public boolean hasConverged() {
+        return converged;
+    }
+
+    @Override
+    public double value() {
+        return value;
+    }
+
+    @Override
+    public int iterations() {
+        return iterations;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.ml.optim;
+
+// SGD with elastic-net regularization applied just in time. Every step shrinks each weight by
+// w = sign(w) * max(0, (1 - rate * l2) * |w| - rate * l1); a weight no row has touched for k steps
+// gets those k steps in closed form when it is next read, using the step it was last brought up to
+// date. Once the shrinkage reaches zero it stays there, so the result equals the eager update.
+public class LazySgd extends SparseOptimizer {
+    private static final long serialVersionUID = 1L;
+
+    final double rate;
+    final double l1;
+    final double l2;
+    final double decay;
+    long[] lastStep;
+
+    public LazySgd(double rate, double l1, double l2) {
+        if (rate * l2 >= 1.0) {
+            throw new IllegalArgumentException("rate * l2 must be below 1, got " + rate * l2);
+        }
+        this.rate = rate;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.decay = 1.0 - rate * l2;
+    }
+
+    @Override
+    protected void allocate(int numWeights) {
+        lastStep = new long[numWeights];
+    }
+
+    @Override
+    public double weight(double[] weights, int j) {
+        long k = steps - lastStep[j];
+        if (k > 0) {
+            weights[j] = regularize(weights[j], k);
+            lastStep[j] = steps;
+        }
+        return weights[j];
+    }
+
+    // k steps of shrinkage: a^k |w| - rate * l1 * (1 + a + ... + a^(k-1)) with a = decay
+    private double regularize(double w, long k) {
+        if (w == 0.0) {
+            return 0.0;
+        }
+        double scale = decay == 1.0 ? 1.0 : Math.pow(decay, k);
+        double shrink = decay == 1.0 ? k * rate * l1 : rate * l1 * (1.0 - scale) / (1.0 - decay);
+        double magnitude = Math.abs(w) * scale - shrink;
+        return magnitude > 0 ? Math.copySign(magnitude, w) : 0.0;
+    }
+
+    // The shrinkage of the current step itself is owed from here on.
+    @Override
+    public void update(double[] weights, int j, double g) {
+        weights[j] = weight(weights, j) - rate * g;
+    }
+
+    @Override
+    public double updateBias(double bias, double g) {
+        return bias - rate * g;
+    }
+
+    @Override
+    public void finish(double[] weights) {
+        for (int j = 0; j < weights.length; j++) {
+            weight(weights, j);
+        }
+    }
+}
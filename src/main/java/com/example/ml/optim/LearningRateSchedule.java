@@ -0,0 +1,27 @@
+package com.example.ml.optim;
+
+import java.io.Serializable;
+
+// Learning rate as a function of the update number, counted from 1.
+public interface LearningRateSchedule extends Serializable {
+    double rate(int step);
+
+    static LearningRateSchedule constant(double rate) {
+        return step -> rate;
+    }
+
+    // rate * factor^floor((step - 1) / every)
+    static LearningRateSchedule stepDecay(double rate, double factor, int every) {
+        return step -> rate * Math.pow(factor, (step - 1) / every);
+    }
+
+    // rate / (1 + decay * (step - 1))
+    static LearningRateSchedule inverseTime(double rate, double decay) {
+        return step -> rate / (1.0 + decay * (step - 1));
+    }
+
+    // rate * e^(-decay * (step - 1))
+    static LearningRateSchedule exponential(double rate, double decay) {
+        return step -> rate * Math.exp(-decay * (step - 1));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ml.optim;
+
+// Batch minimizer driven one iteration at a time, so a model can validate, checkpoint or stop
+// between iterations the same way it does between epochs.
+public interface Minimizer {
+    // Evaluates the starting point; x is updated in place by every step.
+    void start(DifferentiableFunction function, double[] x);
+
+    // Runs one iteration. Returns false, leaving x at the best point found, when no step was taken.
+    boolean step();
+
+    boolean hasConverged();
+
+    double value();
+
+    int iterations();
+}
@@ -0,0 +1,36 @@
+package com.example.ml.optim;
+
+// Heavy-ball momentum: v = momentum * v - rate * g, w += v.
+public class Momentum extends Optimizer {
+    private static final long serialVersionUID = 1L;
+
+    final double momentum;
+    double[] velocity;
+
+    public Momentum(double learningRate, double momentum) {
+        this(LearningRateSchedule.constant(learningRate), momentum);
+    }
+
+    public Momentum(LearningRateSchedule schedule, double momentum) {
+        super(schedule);
+        this.momentum = momentum;
+    }
+
+    @Override
+    protected void allocate(int size) {
+        velocity = new double[size];
+    }
+
+    @Override
+    protected double apply(double[] weights, double[] gradient, int[] indices, int count,
+                           double bias, double biasGradient, double rate) {
+        int n = weights.length;
+        for (int k = 0; k < count; k++) {
+            int i = indices == null ? k : indices[k];
+            velocity[i] = momentum * velocity[i] - rate * gradient[i];
+            weights[i] += velocity[i];
+        }
+        velocity[n] = momentum * velocity[n] - rate * biasGradient;
+        return bias + velocity[n];
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ml.optim;
+
+// Nesterov momentum in the form of Sutskever et al. (2013) that only needs the gradient at the
+// current weights: v = momentum * v - rate * g, w += momentum * v - rate * g.
+public class Nesterov extends Optimizer {
+    private static final long serialVersionUID = 1L;
+
+    final double momentum;
+    double[] velocity;
+
+    public Nesterov(double learningRate, double momentum) {
+        this(LearningRateSchedule.constant(learningRate), momentum);
+    }
+
+    public Nesterov(LearningRateSchedule schedule, double momentum) {
+        super(schedule);
+        this.momentum = momentum;
+    }
+
+    @Override
+    protected void allocate(int size) {
+        velocity = new double[size];
+    }
+
+    @Override
+    protected double apply(double[] weights, double[] gradient, int[] indices, int count,
+                           double bias, double biasGradient, double rate) {
+        int n = weights.length;
+        for (int k = 0; k < count; k++) {
+            int i = indices == null ? k : indices[k];
+            double step = rate * gradient[i];
+            velocity[i] = momentum * velocity[i] - step;
+            weights[i] += momentum * velocity[i] - step;
+        }
+        double step = rate * biasGradient;
+        velocity[n] = momentum * velocity[n] - step;
+        return bias + momentum * velocity[n] - step;
+    }
+}
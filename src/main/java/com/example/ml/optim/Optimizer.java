@@ -0,0 +1,63 @@
+package com.example.ml.optim;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+// Mini-batch update rule for a weight vector and a bias. State is sized once by init, with the
+// bias stored after the weights, so step allocates nothing and can run in the training hot loop.
+public abstract class Optimizer implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final AtomicIntegerFieldUpdater<Optimizer> STEPS =
+            AtomicIntegerFieldUpdater.newUpdater(Optimizer.class, "steps");
+
+    final LearningRateSchedule schedule;
+    // Counted atomically so Hogwild workers sharing a stateless optimizer never lose a step
+    volatile int steps;
+
+    protected Optimizer(LearningRateSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    // Clears the state for numWeights weights plus a bias; call before training.
+    public void init(int numWeights) {
+        steps = 0;
+        allocate(numWeights + 1);
+    }
+
+    // Moves weights against gradient in place and returns the updated bias.
+    public final double step(double[] weights, double[] gradient, double bias, double biasGradient) {
+        int step = STEPS.incrementAndGet(this);
+        return apply(weights, gradient, null, weights.length, bias, biasGradient, schedule.rate(step));
+    }
+
+    // Sparse batches: only weights[indices[k]] for k < count move, and only their state is updated,
+    // so a step costs O(touched features). Untouched coordinates skip the step rather than seeing a
+    // zero gradient, as in lazy Adam.
+    public final double step(double[] weights, double[] gradient, int[] indices, int count,
+                             double bias, double biasGradient) {
+        int step = STEPS.incrementAndGet(this);
+        return apply(weights, gradient, indices, count, bias, biasGradient, schedule.rate(step));
+    }
+
+    // True when apply keeps no per-coordinate state, so concurrent steps race only on the weights
+    // themselves, as plain Hogwild does. Moment and velocity arrays would be torn by concurrent
+    // read-modify-writes, so stateful optimizers are refused in HOGWILD mode.
+    public boolean isStateless() {
+        return false;
+    }
+
+    public LearningRateSchedule getSchedule() {
+        return schedule;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    protected abstract void allocate(int size);
+
+    // Updates coordinates indices[0 .. count), or 0 .. count when indices is null; the bias state is
+    // at weights.length.
+    protected abstract double apply(double[] weights, double[] gradient, int[] indices, int count,
+                                    double bias, double biasGradient, double rate);
+}
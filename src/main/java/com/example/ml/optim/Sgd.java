@@ -0,0 +1,32 @@
+package com.example.ml.optim;
+
+public class Sgd extends Optimizer {
+    private static final long serialVersionUID = 1L;
+
+    public Sgd(double learningRate) {
+        this(LearningRateSchedule.constant(learningRate));
+    }
+
+    public Sgd(LearningRateSchedule schedule) {
+        super(schedule);
+    }
+
+    @Override
+    public boolean isStateless() {
+        return true;
+    }
+
+    @Override
+    protected void allocate(int size) {
+    }
+
+    @Override
+    protected double apply(double[] weights, double[] gradient, int[] indices, int count,
+                           double bias, double biasGradient, double rate) {
+        for (int k = 0; k < count; k++) {
+            int i = indices == null ? k : indices[k];
+            weights[i] -= rate * gradient[i];
+        }
+        return bias - rate * biasGradient;
+    }
+}
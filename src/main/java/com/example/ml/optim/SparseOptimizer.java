@@ -0,0 +1,42 @@
+package com.example.ml.optim;
+
+import java.io.Serializable;
+
+// Per-example update rule for regularized training on sparse rows. A step reads and writes only the
+// coordinates the row touches, so it costs O(non-zeros) however many weights there are. Penalties
+// that would shrink every weight on every step are owed until a coordinate is next read, or settled
+// for all coordinates by finish.
+public abstract class SparseOptimizer implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    long steps;
+
+    // Clears the state for numWeights weights plus a bias; the weights should start at zero.
+    public void init(int numWeights) {
+        steps = 0;
+        allocate(numWeights);
+    }
+
+    // Weight j at the current step, after any regularization it is owed.
+    public abstract double weight(double[] weights, int j);
+
+    // Applies the loss gradient g of weight j at the current step.
+    public abstract void update(double[] weights, int j, double g);
+
+    // Bias is not regularized.
+    public abstract double updateBias(double bias, double g);
+
+    public void endStep() {
+        steps++;
+    }
+
+    // Brings every weight up to date so they can be read directly.
+    public void finish(double[] weights) {
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    protected abstract void allocate(int numWeights);
+}
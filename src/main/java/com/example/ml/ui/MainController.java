@@ -57,6 +57,7 @@ public class MainController {
     private TextField batchSizeField;
     private TextField maxDepthField;
     private TextField minSamplesSplitField;
+    private TextField numTreesField;
 
     // Current trained model
     private Model<Double, Integer> trainedModel;
@@ -64,7 +65,7 @@ public class MainController {
     @FXML
     public void initialize() {
         // Initialize classifier options programmatically
-        classifierComboBox.getItems().addAll("Perceptron", "Logistic Regression", "Decision Tree");
+        classifierComboBox.getItems().addAll("Perceptron", "Logistic Regression", "Decision Tree", "Random Forest");
         classifierComboBox.getSelectionModel().selectFirst();
         handleClassifierSelection(null);
     }
@@ -100,6 +101,11 @@ public class MainController {
                 addHyperparameterField("Max Depth:", "maxDepthField", "7");
                 addHyperparameterField("Min Samples Split:", "minSamplesSplitField", "20");
                 break;
+            case "Random Forest":
+                addHyperparameterField("Number of Trees:", "numTreesField", "100");
+                addHyperparameterField("Max Depth:", "maxDepthField", "10");
+                addHyperparameterField("Min Samples Split:", "minSamplesSplitField", "5");
+                break;
             default:
                 break;
         }
@@ -153,7 +159,7 @@ public class MainController {
                     List<Instance<Double, Integer>> data = loader.loadFromCsv(filePath);
 
                     // Initialize Dataset
-                    Dataset<Double, Integer> dataset = new Dataset<>(data, 8, Double::parseDouble);
+                    Dataset<Double, Integer> dataset = new Dataset<>(data, 8);
                     dataset.shuffle();
 
                     // Initialize variables
@@ -246,6 +252,33 @@ public class MainController {
                             metrics = model.test(testSetDT);
                             break;
 
+                        case "Random Forest":
+                            // Fetch hyperparameters
+                            numTreesField = (TextField) hyperparametersBox.lookup("#numTreesField");
+                            maxDepthField = (TextField) hyperparametersBox.lookup("#maxDepthField");
+                            minSamplesSplitField = (TextField) hyperparametersBox.lookup("#minSamplesSplitField");
+
+                            int rfNumTrees = Integer.parseInt(numTreesField.getText());
+                            int rfMaxDepth = Integer.parseInt(maxDepthField.getText());
+                            int rfMinSamplesSplit = Integer.parseInt(minSamplesSplitField.getText());
+
+                            // Split data without standardization
+                            splitResult = dataset.trainTestSplit(trainRatio, false);
+                            List<Instance<Double, Integer>> trainSetRF = splitResult.getTrainSet();
+                            List<Instance<Double, Integer>> validationSetRF = splitResult.getValidationSet();
+                            List<Instance<Double, Integer>> testSetRF = splitResult.getTestSet();
+
+                            // Initialize and train Random Forest
+                            model = new RandomForest<>(rfNumTrees, rfMaxDepth, rfMinSamplesSplit);
+                            model.train(trainSetRF, validationSetRF);
+
+                            // Assign to trainedModel for serialization
+                            trainedModel = model;
+
+                            // Test and get metrics
+                            metrics = model.test(testSetRF);
+                            break;
+
                         default:
                             throw new IllegalArgumentException("Unsupported classifier selected.");
                     }
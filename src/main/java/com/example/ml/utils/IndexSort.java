@@ -0,0 +1,51 @@
+package com.example.ml.utils;
+
+// Sorts an index array by the values it points to, without boxing.
+// Stable merge sort using Double.compare ordering (-0.0 before 0.0, NaN last).
+public final class IndexSort {
+    private static final int INSERTION_THRESHOLD = 32;
+
+    private IndexSort() {
+    }
+
+    public static void sortByValue(int[] indices, double[] values) {
+        int[] buffer = new int[indices.length];
+        mergeSort(indices, buffer, values, 0, indices.length);
+    }
+
+    private static void mergeSort(int[] indices, int[] buffer, double[] values, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(indices, values, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(indices, buffer, values, from, mid);
+        mergeSort(indices, buffer, values, mid, to);
+        if (Double.compare(values[indices[mid - 1]], values[indices[mid]]) <= 0) {
+            return;
+        }
+        System.arraycopy(indices, from, buffer, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int k = from; k < to; k++) {
+            if (right >= to || (left < mid && Double.compare(values[buffer[left]], values[buffer[right]]) <= 0)) {
+                indices[k] = buffer[left++];
+            } else {
+                indices[k] = buffer[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(int[] indices, double[] values, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int index = indices[i];
+            double value = values[index];
+            int j = i - 1;
+            while (j >= from && Double.compare(values[indices[j]], value) > 0) {
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            indices[j + 1] = index;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ml.utils;
+
+// Dense double[] kernels for the linear models. DEFAULT uses the Vector API when the
+// jdk.incubator.vector module is resolved at startup (--add-modules jdk.incubator.vector) and
+// falls back to plain loops otherwise. Matrices are row-major; offsets are in elements.
+public interface Kernels {
+    Kernels SCALAR = new ScalarKernels();
+    Kernels DEFAULT = select();
+
+    String name();
+
+    // a[aOffset .. aOffset + n) . b[0 .. n)
+    double dot(double[] a, int aOffset, double[] b, int n);
+
+    // y[0 .. n) += alpha * x[xOffset .. xOffset + n)
+    void axpy(double alpha, double[] x, int xOffset, double[] y, int n);
+
+    // out[r] = dot(row r of the rows x cols matrix starting at offset, x) for r < rows
+    void gemv(double[] matrix, int offset, int rows, int cols, double[] x, double[] out);
+
+    default double dot(double[] a, double[] b) {
+        return dot(a, 0, b, b.length);
+    }
+
+    default void axpy(double alpha, double[] x, double[] y) {
+        axpy(alpha, x, 0, y, y.length);
+    }
+
+    // Loaded reflectively so the class is never touched when the module is missing.
+    private static Kernels select() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return SCALAR;
+        }
+        try {
+            return (Kernels) Class.forName("com.example.ml.utils.VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+}
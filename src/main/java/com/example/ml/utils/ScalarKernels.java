@@ -0,0 +1,31 @@
+package com.example.ml.utils;
+
+final class ScalarKernels implements Kernels {
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public double dot(double[] a, int aOffset, double[] b, int n) {
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            sum += a[aOffset + i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int n) {
+        for (int i = 0; i < n; i++) {
+            y[i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void gemv(double[] matrix, int offset, int rows, int cols, double[] x, double[] out) {
+        for (int r = 0; r < rows; r++) {
+            out[r] = dot(matrix, offset + r * cols, x, cols);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.ml.utils;
 
+import com.example.ml.data.FeatureMatrix;
+import com.example.ml.data.IndexSplit;
 import com.example.ml.data.Instance;
 
 import java.util.List;
@@ -8,6 +10,8 @@ public class SplitResult<F, L> {
     List<Instance<F, L>> trainSet;
     List<Instance<F, L>> validationSet;
     List<Instance<F, L>> testSet;
+    FeatureMatrix matrix;
+    IndexSplit indices;
 
     public SplitResult(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet, List<Instance<F, L>> testSet) {
         this.trainSet = trainSet;
@@ -15,6 +19,13 @@ public class SplitResult<F, L> {
         this.testSet = testSet;
     }
 
+    public SplitResult(List<Instance<F, L>> trainSet, List<Instance<F, L>> validationSet, List<Instance<F, L>> testSet,
+                       FeatureMatrix matrix, IndexSplit indices) {
+        this(trainSet, validationSet, testSet);
+        this.matrix = matrix;
+        this.indices = indices;
+    }
+
     public List<Instance<F, L>> getTrainSet() {
         return trainSet;
     }
@@ -26,4 +37,13 @@ public class SplitResult<F, L> {
     public List<Instance<F, L>> getTestSet() {
         return testSet;
     }
+
+    // Matrix the instance lists are views over (possibly a standardized view); null for copied lists.
+    public FeatureMatrix getMatrix() {
+        return matrix;
+    }
+
+    public IndexSplit getIndices() {
+        return indices;
+    }
 }
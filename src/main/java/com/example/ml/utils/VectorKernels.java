@@ -0,0 +1,64 @@
+package com.example.ml.utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Only loaded by Kernels.select when jdk.incubator.vector is present.
+final class VectorKernels implements Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+
+    // Two accumulators hide the latency of dependent FMAs on long rows.
+    @Override
+    public double dot(double[] a, int aOffset, double[] b, int n) {
+        int lanes = SPECIES.length();
+        int i = 0;
+        double sum = 0.0;
+        if (n >= lanes) {
+            DoubleVector acc0 = DoubleVector.zero(SPECIES);
+            DoubleVector acc1 = DoubleVector.zero(SPECIES);
+            for (; i <= n - 2 * lanes; i += 2 * lanes) {
+                acc0 = DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                        .fma(DoubleVector.fromArray(SPECIES, b, i), acc0);
+                acc1 = DoubleVector.fromArray(SPECIES, a, aOffset + i + lanes)
+                        .fma(DoubleVector.fromArray(SPECIES, b, i + lanes), acc1);
+            }
+            for (; i <= n - lanes; i += lanes) {
+                acc0 = DoubleVector.fromArray(SPECIES, a, aOffset + i)
+                        .fma(DoubleVector.fromArray(SPECIES, b, i), acc0);
+            }
+            sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < n; i++) {
+            sum += a[aOffset + i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void axpy(double alpha, double[] x, int xOffset, double[] y, int n) {
+        int i = 0;
+        int bound = SPECIES.loopBound(n);
+        DoubleVector scale = DoubleVector.broadcast(SPECIES, alpha);
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, x, xOffset + i)
+                    .fma(scale, DoubleVector.fromArray(SPECIES, y, i))
+                    .intoArray(y, i);
+        }
+        for (; i < n; i++) {
+            y[i] += alpha * x[xOffset + i];
+        }
+    }
+
+    @Override
+    public void gemv(double[] matrix, int offset, int rows, int cols, double[] x, double[] out) {
+        for (int r = 0; r < rows; r++) {
+            out[r] = dot(matrix, offset + r * cols, x, cols);
+        }
+    }
+}
@@ -5,6 +5,8 @@ module com.example.ml {
     requires java.sql;
     requires commons.logging;
     requires java.desktop;
+    // Optional: Kernels falls back to scalar loops when the module is not resolved
+    requires static jdk.incubator.vector;
 
 
     opens com.example.ml to javafx.fxml;